@@ -2,6 +2,7 @@ plugins {
 	java
 	id("org.springframework.boot") version "3.5.5"
 	id("io.spring.dependency-management") version "1.1.7"
+	id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.game"
@@ -22,6 +23,7 @@ dependencies {
 	implementation("org.springframework.boot:spring-boot-starter")
 	implementation("org.springframework.boot:spring-boot-starter-web")
 	implementation("org.springframework.boot:spring-boot-starter-thymeleaf")
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
@@ -29,3 +31,29 @@ dependencies {
 tasks.withType<Test> {
 	useJUnitPlatform()
 }
+
+// Solves early positions and writes the solver's opening book resource (-PbookPlies=N, default 6)
+tasks.register<JavaExec>("generateOpeningBook") {
+	group = "build"
+	description = "Generates src/main/resources/ai/opening-book.bin"
+	classpath = sourceSets["main"].runtimeClasspath
+	mainClass.set("com.game.fourfront.model.OpeningBookBuilder")
+	jvmArgs("-Xmx3g")
+	args(
+		providers.gradleProperty("bookPlies").getOrElse("6"),
+		"src/main/resources/ai/opening-book.bin"
+	)
+}
+
+// Engine benchmarks in src/jmh, run with ./gradlew jmh (-PjmhInclude=regex for a subset). Results are
+// written as JSON to build/reports/jmh/results.json, or to -PjmhResults=file to keep one per commit.
+jmh {
+	jmhVersion.set("1.37")
+	profilers.add("gc")
+	resultFormat.set("JSON")
+	resultsFile.set(
+		providers.gradleProperty("jmhResults").map { layout.projectDirectory.file(it) }
+			.orElse(layout.buildDirectory.file("reports/jmh/results.json"))
+	)
+	providers.gradleProperty("jmhInclude").orNull?.let { includes.add(it) }
+}
@@ -0,0 +1,82 @@
+package com.game.fourfront.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.game.fourfront.model.BitBoard;
+import com.game.fourfront.model.Board;
+
+// Per-position costs outside the search tree: copying and packing a Board, decoding the packed wire
+// form, the win check after a move, the static evaluation and one make/unmake of every legal move on
+// the bitboard
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    @Param({Positions.OPENING, Positions.MIDGAME, Positions.ENDGAME})
+    public String position;
+
+    private Board board;
+    private BitBoard bits;
+    private String packed;
+    private int player;
+
+    @Setup
+    public void setup() {
+        board = Positions.board(position);
+        bits = board.toBitBoard();
+        packed = bits.toBase64();
+        player = BitBoard.pieceIndex(Positions.toMove(position));
+    }
+
+    @Benchmark
+    public Board copy() {
+        return new Board(board);
+    }
+
+    @Benchmark
+    public String checkWin() {
+        return board.checkWin(board.lastX, board.lastY);
+    }
+
+    @Benchmark
+    public BitBoard toBitBoard() {
+        return board.toBitBoard();
+    }
+
+    @Benchmark
+    public BitBoard fromBase64() {
+        return BitBoard.fromBase64(bits.getGeometry(), bits.getRules(), packed);
+    }
+
+    @Benchmark
+    public int evaluate() {
+        return bits.evaluate(player);
+    }
+
+    @Benchmark
+    public int playUndo() {
+        int sum = 0;
+        for (int col = 0; col < bits.getWidth(); col++) {
+            if (!bits.canPlay(col)) continue;
+            bits.play(col, player);
+            sum += bits.evaluate(1 - player);
+            bits.undo();
+        }
+        return sum;
+    }
+}
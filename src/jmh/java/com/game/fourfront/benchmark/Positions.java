@@ -0,0 +1,36 @@
+package com.game.fourfront.benchmark;
+
+import java.util.Map;
+
+import com.game.fourfront.model.Board;
+
+// Fixed benchmark corpus on the standard 7x6 board: each position is the columns played from the empty
+// board, X first, so every run and every commit measures exactly the same positions
+final class Positions {
+    static final String OPENING = "opening";
+    static final String MIDGAME = "midgame";
+    static final String ENDGAME = "endgame";
+
+    private static final Map<String, String> MOVES = Map.of(
+            OPENING, "3323",
+            MIDGAME, "3145343342434403",
+            ENDGAME, "3145535523302622441136666115");
+
+    private Positions() {
+    }
+
+    static Board board(String name) {
+        Board board = new Board();
+        String piece = "X";
+        for (char col : MOVES.get(name).toCharArray()) {
+            board.drop(col - '0', piece, true);
+            piece = piece.equals("X") ? "O" : "X";
+        }
+        return board;
+    }
+
+    // Piece of the side to move
+    static String toMove(String name) {
+        return MOVES.get(name).length() % 2 == 0 ? "X" : "O";
+    }
+}
@@ -0,0 +1,74 @@
+package com.game.fourfront.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.game.fourfront.model.AIPlayer;
+import com.game.fourfront.model.Board;
+import com.game.fourfront.model.SearchResult;
+import com.game.fourfront.model.TranspositionTable;
+
+// A full chooseMove at a fixed depth, serial and from an empty table like a first request. Reported as
+// moves per second plus a "nodes" counter in nodes per second; with the gc profiler (on by default in
+// the jmh task) gc.alloc.rate.norm is the bytes allocated per move.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    @Param({Positions.OPENING, Positions.MIDGAME, Positions.ENDGAME})
+    public String position;
+
+    @Param({"6", "8"})
+    public int depth;
+
+    private Board board;
+    private String piece;
+    private final TranspositionTable table = new TranspositionTable(16L << 20);
+
+    // Nodes searched, reported by JMH as a rate next to the score
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        board = Positions.board(position);
+        piece = Positions.toMove(position);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        table.clear();
+    }
+
+    @Benchmark
+    public int chooseMove(Nodes counter) {
+        AIPlayer ai = new AIPlayer(piece, depth, 0.0, "bench", table);
+        SearchResult result = ai.search(board);
+        for (long nodes : result.getNodesPerDepth()) counter.nodes += nodes;
+        return result.getMove();
+    }
+}
@@ -47,6 +47,21 @@ export class Board {
         }
     }
 
+    // The position in the server's packed form (BitBoard.fromBase64): X's stones then O's as two
+    // big-endian 64-bit words, bit col * (height + 1) + rows-from-the-bottom, base64 encoded
+    pack(): string {
+        const bytes = new Uint8Array(16);
+        for (let row = 0; row < this.height; row++) {
+            for (let col = 0; col < this.width; col++) {
+                const piece = this.board[row][col];
+                if (piece === '_') continue;
+                const bit = col * (this.height + 1) + (this.height - 1 - row);
+                bytes[(piece === 'X' ? 0 : 8) + 7 - (bit >> 3)] |= 1 << (bit & 7);
+            }
+        }
+        return btoa(String.fromCharCode(...bytes));
+    }
+
     getAt(row: number, col: number): string {
         return this.board[row][col];
     }
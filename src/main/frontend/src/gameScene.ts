@@ -539,7 +539,10 @@ export default class GameScene {
 
     async requestAIMove() {
         const payload = { 
-            board: this.board.board, 
+            bits: this.board.pack(), 
+            width: COLS, 
+            height: ROWS, 
+            winLength: 4, 
             aiPiece: 'O', 
             aiDepth: 4, 
             mistakeRate: 0.1, 
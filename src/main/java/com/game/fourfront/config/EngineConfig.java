@@ -0,0 +1,87 @@
+package com.game.fourfront.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.game.fourfront.model.GameJournal;
+import com.game.fourfront.model.OpeningBook;
+import com.game.fourfront.model.PonderPool;
+import com.game.fourfront.model.Simulator;
+import com.game.fourfront.model.Solver;
+import com.game.fourfront.model.TranspositionTable;
+
+@Configuration
+public class EngineConfig {
+    private static final Logger log = LoggerFactory.getLogger(EngineConfig.class);
+
+    // One transposition table shared by every AI request; it is lock-free, so concurrent games don't contend
+    @Bean
+    public TranspositionTable transpositionTable(@Value("${fourfront.ai.tt-size-mb:64}") long sizeMb) {
+        return new TranspositionTable(sizeMb << 20);
+    }
+
+    // Threads used to search root moves in parallel; 0 means one per available core
+    @Bean
+    public ForkJoinPool searchPool(@Value("${fourfront.ai.search-threads:0}") int threads) {
+        int parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(parallelism);
+    }
+
+    // Searches streamed over SSE (/api/ai/move/stream) run here, off the request threads: this many at once
+    // and at most 'queue' more waiting, after which new streams are turned away
+    @Bean
+    public ThreadPoolExecutor streamSearchPool(@Value("${fourfront.ai.stream-threads:4}") int threads,
+                                               @Value("${fourfront.ai.stream-queue:64}") int queue) {
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queue));
+    }
+
+    // Background searches for sessions that ponder: virtual threads, at most this many searching at once
+    @Bean
+    public PonderPool ponderPool(@Value("${fourfront.ai.ponder-threads:2}") int threads) {
+        return new PonderPool(Executors.newVirtualThreadPerTaskExecutor(), threads);
+    }
+
+    // Perfect-play solver for "solver" mode; its table is separate since solver scores use other units
+    @Bean
+    public Solver solver(@Value("${fourfront.ai.solver-tt-size-mb:64}") long sizeMb) throws IOException {
+        OpeningBook book = OpeningBook.loadDefault();
+        if (book.size() == 0) log.warn("No opening book on the classpath; the solver only plays late positions");
+        else log.info("Opening book loaded: {} positions up to {} stones", book.size(), book.getMaxMoves());
+        return new Solver(new TranspositionTable(sizeMb << 20), book);
+    }
+
+    // Every game played through /api/game and /api/session, appended to segment files off the request
+    // threads; closed with the context, after what is still queued is written
+    @Bean
+    public GameJournal gameJournal(@Value("${fourfront.journal.enabled:true}") boolean enabled,
+                                   @Value("${fourfront.journal.dir:data/journal}") String dir,
+                                   @Value("${fourfront.journal.segment-mb:64}") long segmentMb,
+                                   @Value("${fourfront.journal.queue-capacity:65536}") int capacity) throws IOException {
+        return enabled ? new GameJournal(Path.of(dir), segmentMb << 20, capacity) : GameJournal.disabled();
+    }
+
+    // Batch positions and AI-vs-AI games (/api/ai/batch) run on these threads, not the search pool, so a long
+    // batch can't hold up /api/ai/move; each batch keeps at most twice this many tasks queued
+    @Bean
+    public ThreadPoolExecutor batchPool(@Value("${fourfront.ai.batch-threads:2}") int threads) {
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    }
+
+    // One serial search per batch task
+    @Bean
+    public Simulator simulator(TranspositionTable table, ThreadPoolExecutor batchPool, Solver solver) {
+        return new Simulator(table, batchPool, batchPool.getMaximumPoolSize(), solver);
+    }
+}
@@ -1,40 +1,114 @@
 package com.game.fourfront.controller;
 
+import com.game.fourfront.model.AIConfig;
 import com.game.fourfront.model.AIPlayer;
-import com.game.fourfront.model.Board;
+import com.game.fourfront.model.BitBoard;
+import com.game.fourfront.model.MoveRequest;
+import com.game.fourfront.model.MoveResponse;
+import com.game.fourfront.model.SearchResult;
+import com.game.fourfront.model.Solver;
+import com.game.fourfront.model.TranspositionTable;
+import com.game.fourfront.service.SearchMetrics;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
-import java.util.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @RestController
 @CrossOrigin(origins = "*")
 @RequestMapping("/api/ai")
 public class AIController {
+    // Process-wide search cache, so consecutive turns (and other games) reuse earlier searches
+    private final TranspositionTable table;
+    private final ForkJoinPool searchPool;
+    private final ThreadPoolExecutor streamSearchPool;
+    private final Solver solver;
+    private final SearchMetrics metrics;
+
+    public AIController(TranspositionTable table, ForkJoinPool searchPool, ThreadPoolExecutor streamSearchPool,
+                        Solver solver, SearchMetrics metrics) {
+        this.table = table;
+        this.searchPool = searchPool;
+        this.streamSearchPool = streamSearchPool;
+        this.solver = solver;
+        this.metrics = metrics;
+    }
+
     @PostMapping("/move")
-    public Map<String, Object> getAIMove(@RequestBody Map<String, Object> payload) {
-        // Expecting: { "board": [["_,...],...], "aiPiece": "X", "aiDepth": 4, "mistakeRate": 0.1, "aiName": "AI" }
-        var boardArr = (java.util.List<java.util.List<String>>) payload.get("board");
-        String aiPiece = (String) payload.getOrDefault("aiPiece", "X");
-        int aiDepth = ((Number) payload.getOrDefault("aiDepth", 4)).intValue();
-        double mistakeRate = ((Number) payload.getOrDefault("mistakeRate", 0.1)).doubleValue();
-        String aiName = (String) payload.getOrDefault("aiName", "AI");
-
-        Board board = new Board();
-        for (int row = 0; row < boardArr.size(); row++) {
-            for (int col = 0; col < boardArr.get(row).size(); col++) {
-                board.getBoard()[row][col] = boardArr.get(row).get(col);
+    public MoveResponse getAIMove(@RequestBody MoveRequest request) {
+        // Expecting: { "bits": "AAAAAAAAAAEAAAAAAAAAAg==" or "board": [["_,...],...], "aiPiece": "X", "aiDepth": 4, "mistakeRate": 0.1,
+        //             "aiName": "AI", "timeBudgetMs": 250 (optional), "mode": "search" | "solver",
+        //             "width": 7, "height": 6, "winLength": 4 (optional, size defaults to the board array's or 7x6 with bits),
+        //             "rules": "standard" | "diagonal" | "reversed-gravity" | "destroy" | "swap" | "corruption" (optional),
+        //             "stats": false (optional, adds the search statistics to the response),
+        //             "seed": 42 (optional, the same seed and position give the same move, mistakes included) }
+        // "bits" is BitBoard's base64 wire form, the cheap one to parse; "board" is still accepted
+        BitBoard bits = readPosition(request);
+        AIConfig config = readConfig(request);
+        AIPlayer ai = config.create(request.aiPiece, table, solver);
+        ai.setSearchPool(searchPool);
+        // One search feeds the whole response
+        SearchResult result = ai.search(bits);
+        metrics.record(result.getStats(), result.isSolved() ? "solver" : "search", bits.getRules().getName());
+        return MoveResponse.of(result, request.stats);
+    }
+
+    @PostMapping(value = "/move/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAIMove(@RequestBody MoveRequest request) {
+        // Expecting: the /move fields. The request thread returns at once and the search runs on the stream pool,
+        // sending a "depth" event (SearchProgress) after every completed depth and a final "move" event shaped
+        // like the /move response. Closing the stream stops the search, so a client with its own deadline can
+        // play the last depth's move and hang up. 503 when the pool and its queue are full.
+        BitBoard bits = readPosition(request);
+        AIConfig config = readConfig(request);
+        AIPlayer ai = config.create(request.aiPiece, table, solver);
+        ai.setSearchPool(searchPool);
+
+        SseEmitter emitter = new SseEmitter(0L); // the search's own budget bounds it
+        emitter.onCompletion(() -> ai.stop());
+        emitter.onError(e -> ai.stop());
+        ai.setProgress(progress -> {
+            try {
+                emitter.send(SseEmitter.event().name("depth").data(progress));
+            } catch (IOException e) {
+                ai.stop(); // the client is gone
             }
+        });
+        try {
+            streamSearchPool.execute(() -> {
+                try {
+                    SearchResult result = ai.search(bits);
+                    metrics.record(result.getStats(), result.isSolved() ? "solver" : "search", bits.getRules().getName());
+                    emitter.send(SseEmitter.event().name("move").data(MoveResponse.of(result, request.stats)));
+                    emitter.complete();
+                } catch (IOException | RuntimeException e) {
+                    emitter.completeWithError(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many searches in progress");
         }
+        return emitter;
+    }
 
-        AIPlayer ai = new AIPlayer(aiPiece, aiDepth, mistakeRate, aiName);
-        int move = ai.chooseMove(board);
-
-        // Get top 3 ranked moves (move+score) for frontend if desired
-        List<Map<String, Integer>> ranked = ai.getRankedMoves(board, 3);
+    private static BitBoard readPosition(MoveRequest request) {
+        try {
+            return request.toBitBoard();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
 
-        Map<String, Object> resp = new HashMap<>();
-        resp.put("move", move);
-        resp.put("explanation", ai.getLastExplanation());
-        resp.put("rankedMoves", ranked);
-        return resp;
+    private static AIConfig readConfig(MoveRequest request) {
+        try {
+            return request.toConfig();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 }
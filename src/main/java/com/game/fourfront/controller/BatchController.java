@@ -0,0 +1,124 @@
+package com.game.fourfront.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.fourfront.model.AIConfig;
+import com.game.fourfront.model.BitBoard;
+import com.game.fourfront.model.Matchup;
+import com.game.fourfront.model.MoveRequest;
+import com.game.fourfront.model.RuleSet;
+import com.game.fourfront.model.SearchResult;
+import com.game.fourfront.model.Simulator;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+// Batch evaluation for tournaments and balance tests: many positions or AI-vs-AI games per request,
+// run in parallel by the Simulator and streamed back as NDJSON, one line per position or game in the
+// order they finish (each line carries its "index")
+@RestController
+@CrossOrigin(origins = "*")
+@RequestMapping("/api/ai/batch")
+public class BatchController {
+    private final Simulator simulator;
+    private final ObjectMapper mapper;
+
+    public BatchController(Simulator simulator, ObjectMapper mapper) {
+        this.simulator = simulator;
+        this.mapper = mapper;
+    }
+
+    @PostMapping(value = "/moves", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody moves(@RequestBody Map<String, Object> payload) {
+        // Expecting: { "positions": [ { the /api/ai/move fields }, ... ] }
+        List<MoveRequest> positions = readList(payload, "positions", new TypeReference<List<MoveRequest>>() {});
+        List<Callable<Map<String, Object>>> tasks = new ArrayList<>();
+        for (int i = 0; i < positions.size(); i++) {
+            MoveRequest position = positions.get(i);
+            int index = i;
+            // Decoded before the stream starts, so a bad position rejects the batch with a 400
+            BitBoard bits;
+            AIConfig config;
+            try {
+                bits = position.toBitBoard();
+                config = position.toConfig();
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Position " + index + ": " + e.getMessage());
+            }
+            tasks.add(() -> {
+                SearchResult result = simulator.search(bits, position.aiPiece, config);
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put("index", index);
+                line.put("move", result.getMove());
+                line.put("depthReached", result.getDepthReached());
+                line.put("solved", result.isSolved());
+                line.put("rankedMoves", result.getRankedMoves(3));
+                line.put("scores", result.getColumnScores());
+                return line;
+            });
+        }
+        return out -> stream(out, sink -> simulator.runAll(tasks, sink));
+    }
+
+    @PostMapping(value = "/games", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody games(@RequestBody Map<String, Object> payload) {
+        // Expecting: { "matchups": [ { "rules": "corruption", "width": 5, "height": 5, "winLength": 4, "games": 1000,
+        //             "x": { "name": "Hayden", "depth": 6, "mistakeRate": 0.2, "timeBudgetMs": 0, "mode": "search" },
+        //             "o": { ... }, "seed": 42 }, ... ] } (every field optional); X moves first, games are numbered across
+        //             matchups and each line's "seed" replays its game
+        List<Matchup> matchups = readList(payload, "matchups", new TypeReference<List<Matchup>>() {});
+        for (int i = 0; i < matchups.size(); i++) {
+            Matchup matchup = matchups.get(i);
+            // Reject bad rules or sizes with a 400 before the stream starts
+            try {
+                if (matchup.x == null || matchup.o == null) throw new IllegalArgumentException("Expecting \"x\" and \"o\"");
+                RuleSet.named(matchup.rules).geometry(matchup.width, matchup.height, matchup.winLength);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Matchup " + i + ": " + e.getMessage());
+            }
+        }
+        return out -> stream(out, sink -> simulator.playAll(matchups, sink));
+    }
+
+    // The payload's list under 'name'; 400 when it is missing or its entries don't bind
+    private <T> List<T> readList(Map<String, Object> payload, String name, TypeReference<List<T>> type) {
+        Object value = payload.get(name);
+        if (value == null) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Expecting \"" + name + "\"");
+        try {
+            return mapper.convertValue(value, type);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unreadable \"" + name + "\": " + e.getMessage());
+        }
+    }
+
+    private interface Batch {
+        void run(Consumer<Object> sink) throws InterruptedException;
+    }
+
+    // Writes every result of the batch as one JSON line, flushed as soon as it is ready
+    private void stream(OutputStream out, Batch batch) throws IOException {
+        try {
+            batch.run(result -> {
+                try {
+                    out.write(mapper.writeValueAsBytes(result));
+                    out.write('\n');
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
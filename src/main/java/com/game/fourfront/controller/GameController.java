@@ -1,26 +1,120 @@
 package com.game.fourfront.controller;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.game.fourfront.model.BoardState;
 import com.game.fourfront.model.Move;
 import com.game.fourfront.model.MoveResult;
+import com.game.fourfront.service.GameService;
 
 @RestController
 @RequestMapping("/api/game")
 public class GameController {    
+    private final GameService games;
+    private final ExecutorService pushes = Executors.newVirtualThreadPerTaskExecutor();
+
+    public GameController(GameService games) {
+        this.games = games;
+    }
+
+    @PostMapping
+    public Map<String, Object> createGame(@RequestBody(required = false) Map<String, Object> payload) {
+        // Expecting: { "width": 7, "height": 6, "winLength": 4 } (optional, standard board by default)
+        Map<String, Object> size = payload == null ? Map.of() : payload;
+        String id = games.createGame(
+                ((Number) size.getOrDefault("width", 7)).intValue(),
+                ((Number) size.getOrDefault("height", 6)).intValue(),
+                ((Number) size.getOrDefault("winLength", 4)).intValue());
+        return Map.of("gameId", id);
+    }
+
+    @GetMapping("/{id}/state")
+    public BoardState getGameState(@PathVariable String id) {
+        BoardState board = games.getBoard(id);
+        if (board == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown game " + id);
+        return board;
+    }
 
-    @GetMapping("/state")
-    public BoardState getGameState() {
-        return new BoardState();
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter watchGame(@PathVariable String id) {
+        // Instead of polling /state: a "state" event with the same board now and after every move or reset,
+        // until the game is deleted
+        SseEmitter emitter = new SseEmitter(0L);
+        StatePusher pusher = new StatePusher(id, emitter);
+        if (!games.watch(id, pusher)) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown game " + id);
+        emitter.onCompletion(() -> games.unwatch(id, pusher));
+        pusher.run();
+        return emitter;
     }
 
-    @PostMapping("/move")
-    public MoveResult makeMove(@RequestBody Move move) {
-        return new MoveResult();
+    @PostMapping("/{id}/move")
+    public MoveResult makeMove(@PathVariable String id, @RequestBody Move move) {
+        if (!games.hasGame(id)) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown game " + id);
+        try {
+            return games.placePiece(id, move, move.playerId);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public void deleteGame(@PathVariable String id) {
+        if (!games.removeGame(id)) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown game " + id);
+    }
+
+    // Sends a game's board to one client without ever blocking the thread that changed it: a change only
+    // marks the client stale, and one send at a time, on a virtual thread, reads the latest board. A slow
+    // client skips boards instead of holding up moves.
+    private final class StatePusher implements Runnable {
+        private final String gameId;
+        private final SseEmitter emitter;
+        private final AtomicBoolean stale = new AtomicBoolean();
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        StatePusher(String gameId, SseEmitter emitter) {
+            this.gameId = gameId;
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void run() {
+            stale.set(true);
+            if (sending.compareAndSet(false, true)) pushes.execute(this::send);
+        }
+
+        private void send() {
+            try {
+                while (stale.getAndSet(false)) {
+                    BoardState board = games.getBoard(gameId);
+                    if (board == null) {
+                        emitter.complete(); // deleted
+                        return;
+                    }
+                    emitter.send(SseEmitter.event().name("state").data(board));
+                }
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e); // the client is gone
+                return;
+            } finally {
+                sending.set(false);
+            }
+            // A change that came in after the loop's last check
+            if (stale.get()) run();
+        }
     }
 }
-    
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.game.fourfront.controller;
+
+import com.game.fourfront.model.AIPlayer;
+import com.game.fourfront.model.Board;
+import com.game.fourfront.model.GameSession;
+import com.game.fourfront.model.RuleSet;
+import com.game.fourfront.model.SearchResult;
+import com.game.fourfront.service.SearchMetrics;
+import com.game.fourfront.service.SessionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.*;
+
+@RestController
+@CrossOrigin(origins = "*")
+@RequestMapping("/api/session")
+public class SessionController {
+    private final SessionService sessions;
+    private final SearchMetrics metrics;
+
+    public SessionController(SessionService sessions, SearchMetrics metrics) {
+        this.sessions = sessions;
+        this.metrics = metrics;
+    }
+
+    @PostMapping
+    public Map<String, Object> create(@RequestBody Map<String, Object> payload) {
+        // Expecting the /api/ai/move settings without the board: { "aiPiece": "O", "aiDepth": 4, "mistakeRate": 0.1, "aiName": "AI",
+        //             "timeBudgetMs": 250, "mode": "search" | "solver", "width": 7, "height": 6, "winLength": 4, "rules": "standard",
+        //             "aiFirst": false, "ponder": false, "stats": false, "seed": 42 } (all optional; the seed replays the
+        //             AI's mistakes and random landings, one is picked and returned without it)
+        int width = ((Number) payload.getOrDefault("width", 7)).intValue();
+        int height = ((Number) payload.getOrDefault("height", 6)).intValue();
+        int winLength = ((Number) payload.getOrDefault("winLength", 4)).intValue();
+        RuleSet rules = RuleSet.named((String) payload.getOrDefault("rules", RuleSet.STANDARD.getName()));
+        String aiPiece = (String) payload.getOrDefault("aiPiece", "O");
+        long timeBudgetMs = ((Number) payload.getOrDefault("timeBudgetMs", 0)).longValue();
+        int defaultDepth = timeBudgetMs > 0 ? AIPlayer.MAX_DEPTH : 4;
+        int aiDepth = ((Number) payload.getOrDefault("aiDepth", defaultDepth)).intValue();
+        double mistakeRate = ((Number) payload.getOrDefault("mistakeRate", 0.1)).doubleValue();
+        String aiName = (String) payload.getOrDefault("aiName", "AI");
+        String mode = (String) payload.getOrDefault("mode", "search");
+        boolean aiFirst = (Boolean) payload.getOrDefault("aiFirst", false);
+        boolean ponder = (Boolean) payload.getOrDefault("ponder", false);
+        boolean stats = (Boolean) payload.getOrDefault("stats", false);
+        Number seed = (Number) payload.get("seed");
+
+        GameSession session = sessions.create(new Board(width, height, winLength, rules), aiPiece, aiDepth,
+                mistakeRate, aiName, timeBudgetMs, "solver".equals(mode), ponder, seed == null ? null : seed.longValue());
+        GameSession.Turn turn = aiFirst ? session.playAi() : null;
+        return view(session, turn, stats);
+    }
+
+    @PostMapping("/{id}/move")
+    public Map<String, Object> move(@PathVariable String id, @RequestBody Map<String, Object> payload) {
+        // Expecting: { "column": 3, "stats": false (optional) }; the human's stone is played, then the AI's reply
+        GameSession session = find(id);
+        int column = ((Number) payload.getOrDefault("column", -1)).intValue();
+        boolean stats = (Boolean) payload.getOrDefault("stats", false);
+        try {
+            return view(session, session.playHuman(column), stats);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}")
+    public Map<String, Object> get(@PathVariable String id) {
+        return view(find(id), null, false);
+    }
+
+    @DeleteMapping("/{id}")
+    public void delete(@PathVariable String id) {
+        if (!sessions.remove(id)) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown game " + id);
+    }
+
+    private GameSession find(String id) {
+        GameSession session = sessions.get(id);
+        if (session == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown game " + id);
+        return session;
+    }
+
+    // Board and result after the request, plus the AI's search in the same shape as /api/ai/move
+    private Map<String, Object> view(GameSession session, GameSession.Turn turn, boolean stats) {
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("gameId", session.getId());
+        resp.put("board", session.cells());
+        resp.put("bits", session.packed());
+        resp.put("winner", session.getWinner());
+        resp.put("seed", session.getSeed());
+        if (turn == null) return resp;
+        resp.put("humanMove", turn.humanMove);
+        resp.put("move", turn.aiMove);
+        SearchResult result = turn.search;
+        if (result != null) {
+            metrics.record(result.getStats(), result.isSolved() ? "solver" : "search", session.getRules().getName());
+            resp.put("explanation", result.getExplanation());
+            resp.put("depthReached", result.getDepthReached());
+            resp.put("solved", result.isSolved());
+            resp.put("rankedMoves", result.getRankedMoves(3));
+            resp.put("scores", result.getColumnScores());
+            resp.put("principalVariation", result.getPrincipalVariation());
+            if (stats) resp.put("stats", result.getStats().toMap());
+        }
+        return resp;
+    }
+}
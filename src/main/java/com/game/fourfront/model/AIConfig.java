@@ -0,0 +1,20 @@
+package com.game.fourfront.model;
+
+// Settings of one AI side, e.g. a boss in a simulated game; the same knobs /api/ai/move takes
+public class AIConfig {
+    public String name = "AI";
+    public int depth = 4;
+    public double mistakeRate = 0.1;
+    public long timeBudgetMs = 0;
+    public String mode = "search"; // "search" or "solver"
+    public Long seed;              // reproducible mistakes (AIPlayer.setSeed), null for fresh ones
+
+    // A player for 'piece' on the given table; the solver is only used in "solver" mode
+    public AIPlayer create(String piece, TranspositionTable table, Solver solver) {
+        AIPlayer ai = new AIPlayer(piece, depth, mistakeRate, name, table);
+        ai.setTimeBudgetMs(timeBudgetMs);
+        ai.setSeed(seed);
+        if ("solver".equals(mode)) ai.setSolver(solver);
+        return ai;
+    }
+}
@@ -1,36 +1,173 @@
 package com.game.fourfront.model;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class AIPlayer {
     private String aiName;
     private String aiPiece;
-    private String playerPiece;
+    private int aiIndex;
+    private int playerIndex;
     private int aiDepth;
     private double mistakeRate;
-    private Random randNum;
-    private Map<String, Integer> cache = new HashMap<>();
+    private SplittableRandom randNum;
+    private Long seed; // when set, every search samples its mistakes from a generator seeded with it
+    private final TranspositionTable table;
 
     // new: last explanation and debug flag
     private String lastExplanation = "";
     private boolean debug = false;
 
+    // Iterative deepening state: optional wall-clock budget, abort flag and the last principal variation.
+    // Clock readings are only ever compared by subtracting them, as System.nanoTime() requires.
+    private long timeBudgetMs = 0;
+    private boolean timed;  // the current search has a deadline
+    private long deadline;
+    private volatile boolean aborted;
+    private volatile boolean stopping; // stopAt() was called, from any thread
+    private volatile long stopAt;      // System.nanoTime() to stop at once stopping
+    private int lastDepthReached = 0;
+    private final int[] pvMoves = new int[MAX_DEPTH];
+    private int pvLength = 0;
+    private boolean pvCarried; // pvMoves still hold the line predicted by the previous search
+
+    // Optional pool for searching root moves in parallel; null searches on the calling thread
+    private ExecutorService searchPool;
+
+    // Optional perfect-play solver ("solver" mode); null uses the depth-limited heuristic search
+    private Solver solver;
+
+    // Move ordering heuristics and node counts of each completed iteration (index = depth - 1)
+    private Set<MoveOrderer.Heuristic> moveOrdering = MoveOrderer.ALL;
+    private final LongAdder iterationNodes = new LongAdder();
+    private long[] nodesPerDepth = new long[0];
+
+    // Search statistics of the current search, summed from the workers once per root move
+    private final LongAdder searchNodes = new LongAdder();
+    private final LongAdder searchCutoffs = new LongAdder();
+    private final LongAdder searchProbes = new LongAdder();
+    private final LongAdder searchHits = new LongAdder();
+    private long searchStart;
+
+    // Optional listener told about every completed depth, e.g. to stream a search to a client
+    private Consumer<SearchProgress> progress;
+
     public AIPlayer(String aiPiece, int aiDepth, double mistakeRate, String aiName) {
+        this(aiPiece, aiDepth, mistakeRate, aiName, new TranspositionTable());
+    }
+
+    public AIPlayer(String aiPiece, int aiDepth, double mistakeRate, String aiName, TranspositionTable table) {
+        this.table = table;
         this.aiPiece = aiPiece;
-        this.playerPiece = aiPiece.equals("X") ? "O" : "X";
+        this.aiIndex = BitBoard.pieceIndex(aiPiece.equals("X") ? "X" : "O");
+        this.playerIndex = 1 - aiIndex;
         this.aiDepth = aiDepth;
         this.mistakeRate = mistakeRate;
         this.aiName = aiName;
-        this.randNum = new Random();
+        this.randNum = new SplittableRandom();
     }
 
     // Backwards-compatible chooseMove: returns int but also records explanation in lastExplanation
     public int chooseMove(Board board) {
-        MoveDecision dec = chooseMoveDecision(board);
+        return search(board).getMove();
+    }
+
+    // Runs the root search once and returns everything callers need from it: the chosen move, the
+    // explanation, every column's score and the principal variation
+    public SearchResult search(Board board) {
+        return search(board.toBitBoard());
+    }
+
+    // Same as search(Board) on a position that is already packed; bits is left as it was
+    public SearchResult search(BitBoard bits) {
+        table.newSearch();
+        long start = System.nanoTime();
+        searchStart = start;
+        searchNodes.reset();
+        searchCutoffs.reset();
+        searchProbes.reset();
+        searchHits.reset();
+        boolean solvable = solver != null && Solver.supports(bits) && solver.inReach(bits);
+        if (solvable) pvCarried = false; // the solver writes its own variation
+        List<MoveScore> scoredMoves = solvable ? solveRootMoves(bits) : null;
+        boolean solved = scoredMoves != null;
+        if (!solved) {
+            // Heuristic search, or the solver ran out of time: spend whatever budget is left
+            long spentMs = (System.nanoTime() - start) / 1_000_000L;
+            scoredMoves = scoreRootMoves(bits, timeBudgetMs > 0 ? Math.max(1, timeBudgetMs - spentMs) : 0);
+        }
+
+        // Sort descending (best first)
+        scoredMoves.sort((a, b) -> Integer.compare(b.score, a.score));
+
+        MoveDecision dec = chooseMoveDecision(scoredMoves, seed != null ? new SplittableRandom(seed) : randNum);
+        if (solved && !scoredMoves.isEmpty()) {
+            int best = scoredMoves.get(0).score;
+            String outcome = best > 0 ? "win" : best < 0 ? "loss" : "draw";
+            dec.explanation = "solved=" + outcome + " " + dec.explanation;
+        }
         this.lastExplanation = dec.explanation;
         if (debug && lastExplanation != null) System.out.println("AI explanation: " + lastExplanation);
-        return dec.move;
+
+        int[] rankedMoves = new int[scoredMoves.size()];
+        int[] rankedScores = new int[scoredMoves.size()];
+        for (int i = 0; i < scoredMoves.size(); i++) {
+            rankedMoves[i] = scoredMoves.get(i).move;
+            rankedScores[i] = scoredMoves.get(i).score;
+        }
+        SearchStats stats = new SearchStats(searchNodes.sum(), searchCutoffs.sum(), searchProbes.sum(), searchHits.sum(),
+                lastDepthReached, System.nanoTime() - start, nodesPerDepth);
+        return new SearchResult(dec.move, dec.explanation, rankedMoves, rankedScores,
+                Arrays.copyOf(pvMoves, pvLength), lastDepthReached, nodesPerDepth, solved, bits.getWidth(), stats);
+    }
+
+    // Solver mode: proves the exact value of every root move. Returns null when its share of the time
+    // budget (or SOLVER_BUDGET_MS without one) runs out first, so the caller can fall back to the heuristic
+    // search with the rest.
+    private List<MoveScore> solveRootMoves(BitBoard bits) {
+        long budgetMs = timeBudgetMs > 0 ? Math.max(1, timeBudgetMs / SOLVER_SHARE) : SOLVER_BUDGET_MS;
+        long solveDeadline = System.nanoTime() + budgetMs * 1_000_000L;
+        int moves = bits.getStoneCount();
+        int cells = bits.getGeometry().getCells();
+        int width = bits.getWidth();
+        boolean symmetric = bits.isSymmetric();
+        int[] scores = new int[width];
+        List<MoveScore> scoredMoves = new ArrayList<>();
+        int best = Integer.MIN_VALUE;
+        for (int move = 0; move < width; move++) {
+            if (!bits.canPlay(move)) continue;
+            int score;
+            if (symmetric && move > width - 1 - move) {
+                // Same as the mirrored move, already solved
+                scores[move] = score = scores[width - 1 - move];
+                scoredMoves.add(new MoveScore(move, score));
+                continue;
+            }
+            bits.play(move, aiIndex);
+            if (bits.isWin(aiIndex)) {
+                score = (cells + 1 - moves) / 2;
+            } else {
+                int reply = solver.solve(bits, playerIndex, solveDeadline);
+                score = reply == Solver.UNKNOWN ? Solver.UNKNOWN : -reply;
+            }
+            bits.undo();
+            if (score == Solver.UNKNOWN) return null;
+            scores[move] = score;
+            scoredMoves.add(new MoveScore(move, score));
+            if (score > best) {
+                best = score;
+                pvMoves[0] = move;
+            }
+        }
+        pvLength = scoredMoves.isEmpty() ? 0 : 1;
+        lastDepthReached = cells - moves;
+        nodesPerDepth = new long[0];
+        return scoredMoves;
     }
 
     // New: allow retrieval of last explanation
@@ -42,38 +179,137 @@ public class AIPlayer {
         this.debug = debug;
     }
 
-    // MoveDecision is an internal helper to carry explanation
-    private static class MoveDecision {
-        int move;
-        String explanation;
-        MoveDecision(int move, String explanation) { this.move = move; this.explanation = explanation; }
+    // Limits each search to roughly this many milliseconds; 0 searches to aiDepth regardless of time
+    public void setTimeBudgetMs(long timeBudgetMs) {
+        this.timeBudgetMs = Math.max(0, timeBudgetMs);
     }
 
-    // New: core decision method using softmax sampling when making a mistake
-    private MoveDecision chooseMoveDecision(Board board) {
-        List<Integer> validMoves = getValidMoves(board);
+    // Makes mistakes reproducible: each search then samples from a generator seeded with 'seed', so the
+    // same seed and the same move scores always give the same move. Null samples freely again.
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
 
-        if (validMoves.isEmpty()) return new MoveDecision(-1, "No valid moves available");
+    // Seed for the search at 'ply' of a game played from 'seed' (sessions, simulations), so a whole
+    // game replays from one number
+    public static long seedFor(long seed, int ply) {
+        return seed + ply * 0x9E3779B97F4A7C15L;
+    }
 
-        class MoveScore { int move; int score; MoveScore(int m, int s) { move = m; score = s; } }
-        List<MoveScore> scoredMoves = new ArrayList<>();
+    public long getTimeBudgetMs() {
+        return timeBudgetMs;
+    }
 
-        int alpha = Integer.MIN_VALUE;
-        int beta = Integer.MAX_VALUE;
+    // Ends the search once the clock passes nanoTime (after at least one iteration), whatever its
+    // budget; callable from another thread while the search runs
+    public void stopAt(long nanoTime) {
+        this.stopAt = nanoTime;
+        this.stopping = true;
+    }
 
-        for (int move : validMoves) {
-            Board copy = new Board(board);
-            copy.drop(move, aiPiece, true);
-            int score = minimaxAlphaBeta(copy, aiDepth - 1, false, alpha, beta);
-            scoredMoves.add(new MoveScore(move, score));
-            alpha = Math.max(alpha, score);
+    // Ends the search as soon as it has completed an iteration; callable from another thread
+    public void stop() {
+        stopAt(System.nanoTime());
+    }
+
+    // A player with the same settings and table but its own search state, for searching in the
+    // background: it deepens without the search pool for at most maxMs, unless stopAt() ends it sooner
+    public AIPlayer ponderCopy(long maxMs) {
+        AIPlayer copy = new AIPlayer(aiPiece, aiDepth, mistakeRate, aiName, table);
+        copy.solver = solver;
+        copy.seed = seed;
+        copy.moveOrdering = moveOrdering;
+        copy.setTimeBudgetMs(maxMs);
+        return copy;
+    }
+
+    // Seeds the next search with the principal variation of a search made by another player for this
+    // one (a ponder hit), as if this player had made it
+    public void adoptPrincipalVariation(SearchResult result) {
+        int[] pv = result.getPrincipalVariation();
+        System.arraycopy(pv, 0, pvMoves, 0, pv.length);
+        pvLength = pv.length;
+        pvCarried = false;
+    }
+
+    // Called on the searching thread after each completed depth of the heuristic search, with the move it
+    // would play at that point; null stops the reports. A slow listener delays the next iteration.
+    public void setProgress(Consumer<SearchProgress> progress) {
+        this.progress = progress;
+    }
+
+    // Scores root moves concurrently on the given pool (shared by callers); null turns it off
+    public void setSearchPool(ExecutorService searchPool) {
+        this.searchPool = searchPool;
+    }
+
+    // Switches to solver mode: every root move is proven win/draw/loss when possible in time
+    public void setSolver(Solver solver) {
+        this.solver = solver;
+    }
+
+    // Selects which move ordering heuristics the search uses (all of them by default)
+    public void setMoveOrdering(Set<MoveOrderer.Heuristic> moveOrdering) {
+        this.moveOrdering = EnumSet.noneOf(MoveOrderer.Heuristic.class);
+        this.moveOrdering.addAll(moveOrdering);
+    }
+
+    // Called once the AI's move and the opponent's reply have been played. When both are the moves the
+    // last principal variation predicted, the rest of it seeds the next search, which then starts from
+    // the line it expects instead of from scratch; otherwise the variation is dropped.
+    public void keepPrincipalVariation(int aiMove, int reply) {
+        if (pvLength > 2 && pvMoves[0] == aiMove && pvMoves[1] == reply) {
+            System.arraycopy(pvMoves, 2, pvMoves, 0, pvLength - 2);
+            pvLength -= 2;
+            pvCarried = true;
+        } else {
+            pvLength = 0;
+            pvCarried = false;
         }
+    }
 
-        // Sort descending (best first)
-        scoredMoves.sort((a, b) -> Integer.compare(b.score, a.score));
+    // Depth the search deepens to on this geometry, unless its time budget runs out first
+    public int getSearchDepth(Geometry geometry) {
+        return Math.max(1, Math.min(aiDepth, geometry.getCells()));
+    }
+
+    // Depth of the last fully completed iteration of the previous search
+    public int getLastDepthReached() {
+        return lastDepthReached;
+    }
+
+    // Deep enough to search any supported geometry to the end (a board has at most 64 bits)
+    public static final int MAX_DEPTH = 64;
+    private static final int WIN_SCORE = 1000;
+    private static final int INF = 1_000_000;
+    private static final int TIME_CHECK_INTERVAL = 1023; // nodes between clock reads, minus one
+    private static final long SOLVER_BUDGET_MS = 1000;
+    private static final int SOLVER_SHARE = 3; // the solver may use a third of a time budget
+    // Chance nodes (rule sets with random outcomes) need every score inside known bounds
+    private static final int CHANCE_BOUND = WIN_SCORE + MAX_DEPTH;
+    private static final int EVAL_LIMIT = WIN_SCORE - 1;
+    // Outcomes less likely than this to be reached from the root are scored statically
+    private static final double PROB_CUTOFF = 0.01;
+
+    // MoveDecision is an internal helper to carry explanation
+    private static class MoveDecision {
+        int move;
+        String explanation;
+        MoveDecision(int move, String explanation) { this.move = move; this.explanation = explanation; }
+    }
+
+    private static class MoveScore {
+        int move;
+        int score;
+        MoveScore(int m, int s) { move = m; score = s; }
+    }
+
+    // New: core decision method using softmax sampling when making a mistake; scoredMoves is best first
+    private MoveDecision chooseMoveDecision(List<MoveScore> scoredMoves, SplittableRandom rng) {
+        if (scoredMoves.isEmpty()) return new MoveDecision(-1, "No valid moves available");
 
         double accuracy = 1.0 - Math.max(0.0, Math.min(1.0, mistakeRate));
-        double roll = randNum.nextDouble();
+        double roll = rng.nextDouble();
 
         // If roll within accuracy, choose the best deterministically
         if (roll < accuracy || scoredMoves.size() == 1) {
@@ -108,7 +344,7 @@ public class AIPlayer {
         }
 
         // Sample index by weights
-        double pick = randNum.nextDouble() * weightSum;
+        double pick = rng.nextDouble() * weightSum;
         double acc = 0.0;
         int pickedIndex = 0;
         for (int i = 0; i < weights.length; i++) {
@@ -126,23 +362,10 @@ public class AIPlayer {
     }
 
     // Helper to build human-readable explanation
-    private String buildExplanation(List<?> scoredMovesRaw, double roll, double accuracy, double severity, double temperature, int pickedIndex, double weightSum, String reason) {
-        // Convert scoredMovesRaw (MoveScore) to readable string
-        @SuppressWarnings("unchecked")
-        List<Object> tmp = (List<Object>) scoredMovesRaw;
-        String movesStr = tmp.stream().map(o -> {
-            try {
-                java.lang.reflect.Field mv = o.getClass().getDeclaredField("move");
-                java.lang.reflect.Field sc = o.getClass().getDeclaredField("score");
-                mv.setAccessible(true);
-                sc.setAccessible(true);
-                int m = mv.getInt(o);
-                int s = sc.getInt(o);
-                return String.format("%d(%d)", m, s);
-            } catch (Exception e) {
-                return o.toString();
-            }
-        }).collect(Collectors.joining(", "));
+    private String buildExplanation(List<MoveScore> scoredMoves, double roll, double accuracy, double severity, double temperature, int pickedIndex, double weightSum, String reason) {
+        String movesStr = scoredMoves.stream()
+                .map(ms -> ms.move + "(" + ms.score + ")")
+                .collect(Collectors.joining(", "));
 
         String pickRankText = (pickedIndex >= 0) ? String.format("%d", pickedIndex + 1) : "?";
 
@@ -158,129 +381,384 @@ public class AIPlayer {
         return sb.toString();
     }
 
-    private int minimaxAlphaBeta(Board board, int aiDepth, boolean maximizing, int alpha, int beta) {
-        String boardKey = board.toString() + aiDepth + maximizing;
-        if (cache.containsKey(boardKey)) {
-            return cache.get(boardKey);
+    // Scores every legal root move for the AI, in column order. Each root move is searched with a
+    // window one below the best score so far, so every move that ties for the top score gets an exact
+    // score and the lowest such column is the best move, whether the root was searched serially or in
+    // parallel. Runs iterative deepening up to aiDepth; when a time budget is set the deepest iteration
+    // that finished in time is returned. In a position that is its own mirror image only the left half
+    // of the moves (and the center) is searched; each right-hand move gets its mirror's score.
+    private List<MoveScore> scoreRootMoves(BitBoard bits, long budgetMs) {
+        int width = bits.getWidth();
+        boolean symmetric = bits.isSymmetric();
+        int maxDepth = getSearchDepth(bits.getGeometry());
+        timed = budgetMs > 0;
+        deadline = System.nanoTime() + budgetMs * 1_000_000L;
+        aborted = false;
+        if (!pvCarried || !bits.canPlay(pvMoves[0])) pvLength = 0;
+        pvCarried = false;
+        // The mirror image of a carried variation is just as good a line, and starts with a searched move
+        if (symmetric && pvLength > 0 && pvMoves[0] > width - 1 - pvMoves[0]) {
+            for (int i = 0; i < pvLength; i++) pvMoves[i] = width - 1 - pvMoves[i];
         }
-        String winner = board.checkWin(board.lastX, board.lastY);
-        if (!winner.equals("no winner") || aiDepth == 0 || board.isFull()) {
-            int eval = evaluatePoints(board, winner, aiDepth);
-            cache.put(boardKey, eval);
-            return eval;
+        lastDepthReached = 0;
+
+        Integer[] rootOrder = new Integer[width];
+        int rootCount = 0;
+        // A variation carried over from the previous turn is searched first
+        if (pvLength > 0) rootOrder[rootCount++] = pvMoves[0];
+        for (int move = 0; move < width; move++) {
+            if (symmetric && move > width - 1 - move) break;
+            if (bits.canPlay(move) && (pvLength == 0 || move != pvMoves[0])) rootOrder[rootCount++] = move;
         }
-        int bestScore = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
-        for (int move : getValidMoves(board)) {
-            Board copy = new Board(board);
-            String pieceToDrop = maximizing ? aiPiece : playerPiece;
-            copy.drop(move, pieceToDrop, true);
-            int score = minimaxAlphaBeta(copy, aiDepth - 1, !maximizing, alpha, beta);
-            if (maximizing) {
-                bestScore = Math.max(score, bestScore);
-                alpha = Math.max(alpha, bestScore);
+        if (rootCount == 0) return new ArrayList<>();
+        rootOrder = Arrays.copyOf(rootOrder, rootCount);
+
+        Worker main = new Worker(bits);
+        int[] completed = null;
+        long[] nodeCounts = new long[maxDepth];
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int[] scores = new int[width];
+            iterationNodes.reset();
+            if (searchPool == null) {
+                searchRootSerial(main, bits, rootOrder, depth, scores);
             } else {
-                bestScore = Math.min(score, bestScore);
-                beta = Math.min(beta, bestScore);
+                searchRootParallel(main, bits, rootOrder, depth, scores);
             }
-            if (beta <= alpha) {
-                break; // Alpha-beta pruning
+            if (aborted) break;
+            if (symmetric) {
+                for (int move = width / 2 + width % 2; move < width; move++) scores[move] = scores[width - 1 - move];
             }
+
+            completed = scores;
+            lastDepthReached = depth;
+            nodeCounts[depth - 1] = iterationNodes.sum();
+            if (debug) System.out.println("AI depth " + depth + ": " + nodeCounts[depth - 1] + " nodes");
+            // Next iteration searches the best moves first, lowest column first among ties
+            Arrays.sort(rootOrder, (a, b) -> scores[a] != scores[b]
+                    ? Integer.compare(scores[b], scores[a])
+                    : Integer.compare(a, b));
+            extractPrincipalVariation(bits, rootOrder[0], depth);
+            if (progress != null) progress.accept(progress(depth, rootOrder[0], scores[rootOrder[0]]));
         }
-        cache.put(boardKey, bestScore);
-        return bestScore;
-    }
-
-    private int evaluatePoints(Board board, String winner, int depthLeft) {
-        if (winner.equals(aiPiece)) return 1000 + depthLeft;
-        if (winner.equals(playerPiece)) return -1000 - depthLeft;
-        int score = 0;
-        int centerCol = board.getWidth() / 2;
-        for (int y = 0; y < board.getHeight(); y++) {
-            String[][] currentBoard = board.getBoard();
-            if (currentBoard[y][centerCol].equals(aiPiece)) score += 5;
-            else if (currentBoard[y][centerCol].equals(playerPiece)) score -= 5;
+
+        nodesPerDepth = Arrays.copyOf(nodeCounts, lastDepthReached);
+        List<MoveScore> scoredMoves = new ArrayList<>();
+        for (int move = 0; move < width; move++) {
+            if (bits.canPlay(move)) scoredMoves.add(new MoveScore(move, completed[move]));
         }
-        for (int row = 0; row < board.getHeight(); row++) {
-            for (int col = 0; col < board.getWidth(); col++) {
-                if (board.getBoard()[row][col].equals("_")) continue;
-                String current = board.getBoard()[row][col];
-                int value = current.equals(aiPiece) ? 1 : -1;
-                score += value * countStreak(board, row, col, 1, 0);
-                score += value * countStreak(board, row, col, 0, 1);
-                score += value * countStreak(board, row, col, 1, 1);
-                score += value * countStreak(board, row, col, 1, -1);
-            }
+        return scoredMoves;
+    }
+
+    private void searchRootSerial(Worker main, BitBoard bits, Integer[] rootOrder, int depth, int[] scores) {
+        int best = -INF;
+        for (int i = 0; i < rootOrder.length; i++) {
+            int move = rootOrder[i];
+            // The first root move is last iteration's best, so follow its principal variation
+            main.followPv = i == 0 && pvLength > 1;
+            int score = searchRootMove(main, bits, move, depth, best);
+            if (aborted) return;
+            scores[move] = score;
+            best = Math.max(best, score);
+        }
+    }
+
+    // Young Brothers Wait at the root: the first (expected best) move is searched alone to establish
+    // a bound, then its siblings are searched concurrently, each starting from the best score found so far
+    private void searchRootParallel(Worker main, BitBoard bits, Integer[] rootOrder, int depth, int[] scores) {
+        main.followPv = pvLength > 1;
+        int first = rootOrder[0];
+        int firstScore = searchRootMove(main, bits, first, depth, -INF);
+        if (aborted) return;
+        scores[first] = firstScore;
+
+        AtomicInteger sharedBest = new AtomicInteger(firstScore);
+        List<Callable<Void>> siblings = new ArrayList<>();
+        for (int i = 1; i < rootOrder.length; i++) {
+            int move = rootOrder[i];
+            siblings.add(() -> {
+                int score = searchRootMove(new Worker(bits), new BitBoard(bits), move, depth, sharedBest.get());
+                if (!aborted) {
+                    scores[move] = score;
+                    sharedBest.accumulateAndGet(score, Math::max);
+                }
+                return null;
+            });
+        }
+        try {
+            searchPool.invokeAll(siblings);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            aborted = true;
         }
+    }
+
+    private int searchRootMove(Worker worker, BitBoard bits, int move, int depth, int best) {
+        int alpha = best == -INF ? -INF : best - 1;
+        long nodesBefore = worker.nodes;
+        long cutoffsBefore = worker.cutoffs;
+        long probesBefore = worker.tableProbes;
+        long hitsBefore = worker.tableHits;
+        int score;
+        if (worker.chance) {
+            score = worker.chanceNode(bits, move, aiIndex, depth, 0, alpha, INF);
+        } else {
+            bits.play(move, aiIndex);
+            score = bits.isWin(aiIndex)
+                    ? WIN_SCORE + depth - 1
+                    : -worker.negamax(bits, depth - 1, 1, playerIndex, -INF, -alpha);
+            bits.undo();
+        }
+        worker.followPv = false;
+        iterationNodes.add(worker.nodes - nodesBefore + 1);
+        searchNodes.add(worker.nodes - nodesBefore + 1);
+        searchCutoffs.add(worker.cutoffs - cutoffsBefore);
+        searchProbes.add(worker.tableProbes - probesBefore);
+        searchHits.add(worker.tableHits - hitsBefore);
         return score;
     }
 
-    private int countStreak(Board board, int row, int col, int dRow, int dCol) {
-        String piece = board.getBoard()[row][col];
-        int streak = 1;
-        int openEnds = 0;
-        for (int i = 1; i < board.getWinCondition(); i++) {
-            int r = row + i * dRow;
-            int c = col + i * dCol;
-            if (r < 0 || r >= board.getHeight() || c < 0 || c >= board.getWidth()) break;
-            if (board.getBoard()[r][c].equals(piece)) {
-                streak++;
-            } else if (board.getBoard()[r][c].equals("_")) {
-                openEnds++;
-                break;
-            } else break;
+    private SearchProgress progress(int depth, int move, int score) {
+        SearchProgress report = new SearchProgress();
+        report.depth = depth;
+        report.move = move;
+        report.score = score;
+        report.principalVariation = Arrays.copyOf(pvMoves, pvLength);
+        report.nodes = searchNodes.sum();
+        report.elapsedMs = (System.nanoTime() - searchStart) / 1_000_000L;
+        return report;
+    }
+
+    // Rebuilds the principal variation by following best moves stored in the table
+    private void extractPrincipalVariation(BitBoard bits, int bestMove, int depth) {
+        BitBoard line = new BitBoard(bits);
+        int player = aiIndex;
+        int move = bestMove;
+        pvLength = 0;
+        while (move >= 0 && pvLength < depth && line.canPlay(move)) {
+            pvMoves[pvLength++] = move;
+            line.play(move, player);
+            if (line.isWin(player) || line.isFull()) break;
+            player = 1 - player;
+            long entry = table.probe(line.hash(player));
+            move = entry == 0 ? -1 : line.orient(TranspositionTable.move(entry));
         }
-        for (int i = 1; i < board.getWinCondition(); i++) {
-            int r = row - i * dRow;
-            int c = col - i * dCol;
-            if (r < 0 || r >= board.getHeight() || c < 0 || c >= board.getWidth()) break;
-            if (board.getBoard()[r][c].equals(piece)) {
-                streak++;
-            } else if (board.getBoard()[r][c].equals("_")) {
-                openEnds++;
-                break;
-            } else break;
+    }
+
+    // Per-thread search state: each concurrent search gets its own worker and BitBoard copy, while
+    // the transposition table, deadline and abort flag are shared
+    private class Worker {
+        private final int[][] moveBuffer;
+        private final MoveOrderer orderer;
+        private long nodes;
+        private long cutoffs;
+        private long tableProbes;
+        private long tableHits;
+        private boolean followPv;
+
+        // Chance node state, only allocated when the rule set has random outcomes
+        private final boolean chance;
+        private final RuleSet rules;
+        private final int[][] outcomeCols;
+        private final int[][] outcomeWeights;
+        private final int[][] outcomeUpper;
+        private double reach = 1.0; // probability of the current line's outcomes
+
+        Worker(BitBoard root) {
+            Geometry geometry = root.getGeometry();
+            this.moveBuffer = new int[geometry.getCells() + 1][geometry.getWidth()];
+            this.orderer = new MoveOrderer(moveOrdering, geometry, root.getRules());
+            this.rules = root.getRules();
+            this.chance = rules.hasChance();
+            this.outcomeCols = chance ? new int[geometry.getCells() + 1][geometry.getWidth()] : null;
+            this.outcomeWeights = chance ? new int[geometry.getCells() + 1][geometry.getWidth()] : null;
+            this.outcomeUpper = chance ? new int[geometry.getCells() + 1][geometry.getWidth()] : null;
         }
-        if (streak >= board.getWinCondition()) return 100;
-        if (streak == 3 && openEnds > 0) return 50;
-        if (streak == 2 && openEnds > 0) return 10;
-        if (streak == 1 && openEnds > 0) return 1;
-        return 0;
-    }
-
-    private List<Integer> getValidMoves(Board board) {
-        List<Integer> validMoves = new ArrayList<>();
-        for (int i = 0; i < board.getWidth(); i++) {
-            if (board.isColumnOpen(i)) {
-                validMoves.add(i);
+
+        // Negamax over the bitboard with make/unmake; scores are from the point of view of 'player' (to move)
+        private int negamax(BitBoard bits, int depth, int ply, int player, int alpha, int beta) {
+            if ((++nodes & TIME_CHECK_INTERVAL) == 0 && lastDepthReached > 0) {
+                long now = System.nanoTime();
+                if ((timed && now - deadline > 0) || (stopping && now - stopAt > 0)) aborted = true;
+            }
+            if (aborted) return 0;
+
+            long key = bits.hash(player);
+            int alphaOrig = alpha;
+            int ttMove = -1;
+            long entry = table.probe(key);
+            tableProbes++;
+            if (entry != 0) {
+                tableHits++;
+                ttMove = bits.orient(TranspositionTable.move(entry));
+                if (TranspositionTable.depth(entry) >= depth && !followPv) {
+                    int ttScore = TranspositionTable.score(entry);
+                    int flag = TranspositionTable.flag(entry);
+                    if (flag == TranspositionTable.EXACT) return ttScore;
+                    if (flag == TranspositionTable.LOWER) alpha = Math.max(alpha, ttScore);
+                    else beta = Math.min(beta, ttScore);
+                    if (alpha >= beta) return ttScore;
+                }
+            }
+            if (depth == 0 || bits.isFull()) {
+                followPv = false;
+                return chance ? boundedEvaluation(bits, player) : bits.evaluate(player);
+            }
+            // Nothing beats winning on the spot
+            if (orderer.canWinNow(bits, player)) {
+                followPv = false;
+                return WIN_SCORE + depth - 1;
+            }
+
+            int pvMove = -1;
+            if (followPv) {
+                if (ply < pvLength) pvMove = pvMoves[ply];
+                followPv = pvMove >= 0 && bits.canPlay(pvMove);
+            }
+            int[] moves = moveBuffer[ply];
+            int count = orderer.order(bits, ply, player, pvMove, ttMove, moves);
+            int bestScore = -INF;
+            int bestMove = -1;
+            for (int i = 0; i < count; i++) {
+                int move = moves[i];
+                int score;
+                if (chance) {
+                    score = chanceNode(bits, move, player, depth, ply, alpha, beta);
+                } else {
+                    bits.play(move, player);
+                    // A win for the mover scores WIN_SCORE plus the depth left, so faster wins rank higher
+                    score = bits.isWin(player)
+                            ? WIN_SCORE + depth - 1
+                            : -negamax(bits, depth - 1, ply + 1, 1 - player, -beta, -alpha);
+                    bits.undo();
+                }
+                followPv = false; // only the first child of a PV node continues the variation
+                if (aborted) return 0;
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestMove = move;
+                }
+                alpha = Math.max(alpha, bestScore);
+                if (alpha >= beta) {
+                    orderer.recordCutoff(ply, player, move, depth);
+                    cutoffs++;
+                    break; // Alpha-beta pruning
+                }
             }
+            int flag = bestScore <= alphaOrig ? TranspositionTable.UPPER
+                    : bestScore >= beta ? TranspositionTable.LOWER
+                    : TranspositionTable.EXACT;
+            table.store(key, depth, flag, bestScore, bits.orient(bestMove));
+            return bestScore;
         }
-        return validMoves;
-    }
 
-    // New public helper: returns ranked moves (move + score) sorted desc, up to 'count' entries
-    public List<Map<String, Integer>> getRankedMoves(Board board, int count) {
-        List<Integer> validMoves = getValidMoves(board);
-        class MS { int m; int s; MS(int m, int s){ this.m = m; this.s = s; } }
-        List<MS> list = new ArrayList<>();
-        int alpha = Integer.MIN_VALUE;
-        int beta = Integer.MAX_VALUE;
-        for (int move : validMoves) {
-            Board copy = new Board(board);
-            copy.drop(move, aiPiece, true);
-            int score = minimaxAlphaBeta(copy, aiDepth - 1, false, alpha, beta);
-            list.add(new MS(move, score));
-            alpha = Math.max(alpha, score);
+        // Chance node: 'player' aims a stone at 'move' and the rule set decides where it lands. Returns the
+        // expected score over the outcomes (rounded down), from the mover's point of view and fail-soft
+        // like negamax. Star2: with a bound to fail low against, each outcome is first probed with only the
+        // opponent's first ordered reply, which caps its value. Star1: the outcomes are then searched in
+        // turn, each with the narrowest window that can still move the expectation across alpha or beta,
+        // using the caps and CHANCE_BOUND for the outcomes not searched yet.
+        private int chanceNode(BitBoard bits, int move, int player, int depth, int ply, int alpha, int beta) {
+            int[] cols = outcomeCols[ply];
+            int[] weights = outcomeWeights[ply];
+            int[] upper = outcomeUpper[ply];
+            int count = rules.outcomes(bits, move, cols, weights);
+            long total = 0;
+            for (int i = 0; i < count; i++) {
+                total += weights[i];
+                upper[i] = CHANCE_BOUND;
+            }
+            double parentReach = reach;
+            boolean pv = followPv;
+            followPv = false;
+
+            long upperRest = CHANCE_BOUND * total; // weighted caps of the outcomes not searched yet
+            if (count > 1 && alpha >= -CHANCE_BOUND) {
+                for (int i = 0; i < count; i++) {
+                    long w = weights[i];
+                    upperRest -= w * CHANCE_BOUND;
+                    // At or below this value the outcome fails the node low
+                    long target = ceilDiv((alpha + 1) * total - upperRest, w) - 1;
+                    target = Math.max(-CHANCE_BOUND - 1, Math.min(target, CHANCE_BOUND));
+                    reach = parentReach * w / total;
+                    upper[i] = probe(bits, cols[i], player, depth, ply, (int) target);
+                    reach = parentReach;
+                    if (aborted) return 0;
+                    upperRest += w * upper[i];
+                    if (Math.floorDiv(upperRest, total) <= alpha) return (int) Math.floorDiv(upperRest, total);
+                }
+            }
+
+            long exact = 0;                         // weighted values of the outcomes searched so far
+            long lowerRest = -CHANCE_BOUND * total; // weighted floor of the outcomes not searched yet
+            for (int i = 0; i < count; i++) {
+                long w = weights[i];
+                upperRest -= w * upper[i];
+                lowerRest += w * CHANCE_BOUND;
+                long childAlpha = ceilDiv((alpha + 1) * total - exact - upperRest, w) - 1;
+                long childBeta = ceilDiv(beta * total - exact - lowerRest, w);
+                if (upper[i] <= childAlpha) return (int) Math.floorDiv(exact + w * upper[i] + upperRest, total);
+                int a = (int) Math.max(childAlpha, -CHANCE_BOUND - 1);
+                int b = (int) Math.min(childBeta, CHANCE_BOUND + 1);
+
+                reach = parentReach * w / total;
+                followPv = pv && i == 0; // the principal variation assumed the stone landed where aimed
+                bits.play(cols[i], player);
+                int score = bits.isWin(player) ? WIN_SCORE + depth - 1
+                        : reach < PROB_CUTOFF ? -boundedEvaluation(bits, 1 - player)
+                        : -negamax(bits, depth - 1, ply + 1, 1 - player, -b, -a);
+                bits.undo();
+                reach = parentReach;
+                followPv = false;
+                if (aborted) return 0;
+
+                if (score <= a) return (int) Math.floorDiv(exact + w * score + upperRest, total);
+                if (score >= b) return (int) Math.floorDiv(exact + w * score + lowerRest, total);
+                exact += w * score;
+            }
+            return (int) Math.floorDiv(exact, total);
         }
-        list.sort((a,b) -> Integer.compare(b.s, a.s));
-        List<Map<String,Integer>> out = new ArrayList<>();
-        int limit = Math.max(0, Math.min(count, list.size()));
-        for (int i = 0; i < limit; i++) {
-            Map<String,Integer> m = new HashMap<>();
-            m.put("move", list.get(i).m);
-            m.put("score", list.get(i).s);
-            out.add(m);
+
+        // Star2 probe of one outcome: an upper bound on its value for the mover, found by searching only
+        // the opponent's first ordered reply. The reply is searched just far enough to tell whether the
+        // outcome scores at most 'target'; when it does not, the probe learns nothing.
+        private int probe(BitBoard bits, int col, int player, int depth, int ply, int target) {
+            bits.play(col, player);
+            int bound;
+            if (bits.isWin(player)) {
+                bound = WIN_SCORE + depth - 1;
+            } else if (depth == 1 || bits.isFull() || reach < PROB_CUTOFF) {
+                bound = -boundedEvaluation(bits, 1 - player);
+            } else {
+                int opponent = 1 - player;
+                long entry = table.probe(bits.hash(opponent));
+                int[] replies = moveBuffer[ply + 1];
+                int ttMove = entry == 0 ? -1 : bits.orient(TranspositionTable.move(entry));
+                orderer.order(bits, ply + 1, opponent, -1, ttMove, replies);
+                int reply = chanceNode(bits, replies[0], opponent, depth - 1, ply + 1, -target - 1, INF);
+                bound = reply > -target - 1 ? -reply : CHANCE_BOUND;
+            }
+            bits.undo();
+            return bound;
         }
-        return out;
+    }
+
+    // Static evaluation kept inside the bounds chance nodes prune with
+    private static int boundedEvaluation(BitBoard bits, int player) {
+        return Math.max(-EVAL_LIMIT, Math.min(EVAL_LIMIT, bits.evaluate(player)));
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    // New public helper: returns ranked moves (move + score) sorted desc, up to 'count' entries.
+    // Runs a full search; callers that also need the move should use search() once instead.
+    public List<Map<String, Integer>> getRankedMoves(Board board, int count) {
+        return search(board).getRankedMoves(count);
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return table;
     }
 
     public String getName() {
@@ -0,0 +1,289 @@
+package com.game.fourfront.model;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.SplittableRandom;
+
+// Packed bitboard used by the AI search. Each column takes height + 1 bits, bit 0 of a column
+// is its bottom cell and the extra top bit is a sentinel so shifts never bleed into the next column.
+// Masks and win detection come from the board's Geometry, post-move effects from its RuleSet (rows are
+// always stacked from the bottom here, Board flips them for reversed gravity); the standard 7x6 layout is
+//
+//  6 13 20 27 34 41 48   <- sentinel row (always empty)
+//  5 12 19 26 33 40 47
+//  4 11 18 25 32 39 46
+//  3 10 17 24 31 38 45
+//  2  9 16 23 30 37 44
+//  1  8 15 22 29 36 43
+//  0  7 14 21 28 35 42
+public class BitBoard {
+    // Player indexes used everywhere in the engine
+    public static final int X = 0;
+    public static final int O = 1;
+
+    // Zobrist keys per (player, bit) plus one per side to move; fixed seed so keys are stable across runs.
+    // Every geometry fits in 64 bits, and each one salts its hashes so they never collide with another's.
+    private static final long[][] ZOBRIST = new long[2][64];
+    private static final long[] SIDE_KEYS = new long[2];
+    static {
+        SplittableRandom rng = new SplittableRandom(0x46_6F_75_72_46_72_6FL);
+        for (int p = 0; p < 2; p++) {
+            for (int i = 0; i < 64; i++) ZOBRIST[p][i] = rng.nextLong();
+            SIDE_KEYS[p] = rng.nextLong();
+        }
+    }
+
+    private final Geometry geometry;
+    private final RuleSet rules;
+    private final boolean effects;             // rules.hasEffects(), read on every move
+    private final long[] pieces = new long[2]; // one long per player
+    private long mask;                         // every occupied cell ("height mask")
+    private final int[] history;               // (col << 1 | player) per ply, for undo
+    private int moveCount;
+    private long hash;                         // Zobrist hash of the stones, updated on make/unmake
+    private long mirrorHash;                   // the same for the stones mirrored left to right
+    private final ThreatEvaluator evaluator;   // window counts, updated on make/unmake
+    private final long[] effectLog;            // stones (X, O) before each ply's effect, only with effects
+    private final long[] effectScratch;
+
+    public BitBoard() {
+        this(Geometry.STANDARD);
+    }
+
+    public BitBoard(Geometry geometry) {
+        this(geometry, RuleSet.STANDARD);
+    }
+
+    public BitBoard(Geometry geometry, RuleSet rules) {
+        this.geometry = geometry;
+        this.rules = rules;
+        this.effects = rules.hasEffects();
+        this.history = new int[geometry.getCells()];
+        this.hash = geometry.salt ^ rules.salt;
+        this.mirrorHash = hash;
+        this.evaluator = new ThreatEvaluator(geometry);
+        this.effectLog = effects ? new long[2 * geometry.getCells()] : null;
+        this.effectScratch = effects ? new long[2] : null;
+    }
+
+    // A position given as both players' stones in this layout. They must not overlap and must be stacked
+    // from the bottom of their columns, as in every position play reaches. Like set(), no undo history.
+    public BitBoard(Geometry geometry, RuleSet rules, long x, long o) {
+        this(geometry, rules);
+        long stones = x | o;
+        if ((x & o) != 0 || (stones & ~geometry.boardMask) != 0 || ((stones + geometry.bottomRow) & stones) != 0) {
+            throw new IllegalArgumentException("Stones don't form a " + geometry.getWidth() + "x"
+                    + geometry.getHeight() + " position");
+        }
+        replaceStones(x, o);
+    }
+
+    // Wire form of a position: X's stones then O's as two big-endian longs in this layout, 16 bytes in
+    // base64. Rows always count from the bottom, whatever the gravity; size and rules travel separately.
+    public static BitBoard fromBase64(Geometry geometry, RuleSet rules, String packed) {
+        byte[] bytes = Base64.getDecoder().decode(packed);
+        if (bytes.length != 16) throw new IllegalArgumentException("A packed board is 16 bytes, not " + bytes.length);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new BitBoard(geometry, rules, buffer.getLong(), buffer.getLong());
+    }
+
+    public String toBase64() {
+        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(16).putLong(pieces[X]).putLong(pieces[O]).array());
+    }
+
+    public BitBoard(BitBoard other) {
+        this.geometry = other.geometry;
+        this.rules = other.rules;
+        this.effects = other.effects;
+        this.pieces[X] = other.pieces[X];
+        this.pieces[O] = other.pieces[O];
+        this.mask = other.mask;
+        this.history = new int[geometry.getCells()];
+        System.arraycopy(other.history, 0, this.history, 0, other.moveCount);
+        this.effectLog = effects ? other.effectLog.clone() : null;
+        this.effectScratch = effects ? new long[2] : null;
+        this.moveCount = other.moveCount;
+        this.hash = other.hash;
+        this.mirrorHash = other.mirrorHash;
+        this.evaluator = new ThreatEvaluator(other.evaluator);
+    }
+
+    public static int pieceIndex(String piece) {
+        if ("X".equals(piece)) return X;
+        if ("O".equals(piece)) return O;
+        return -1;
+    }
+
+    public static String pieceName(int player) {
+        return player == X ? "X" : "O";
+    }
+
+    public Geometry getGeometry() {
+        return geometry;
+    }
+
+    public RuleSet getRules() {
+        return rules;
+    }
+
+    public int getWidth() {
+        return geometry.getWidth();
+    }
+
+    public boolean canPlay(int col) {
+        return (mask & geometry.topMask(col)) == 0;
+    }
+
+    // Make a move for player in col. Caller must check canPlay first.
+    public void play(int col, int player) {
+        long move = moveCell(col);
+        pieces[player] |= move;
+        mask |= move;
+        int index = Long.numberOfTrailingZeros(move);
+        hash ^= ZOBRIST[player][index];
+        mirrorHash ^= ZOBRIST[player][geometry.mirrorBit[index]];
+        evaluator.add(index, player);
+        history[moveCount++] = (col << 1) | player;
+        if (effects) applyEffect(move, player);
+    }
+
+    // Unmake the most recent move
+    public void undo() {
+        int entry = history[--moveCount];
+        if (effects) replaceStones(effectLog[2 * moveCount], effectLog[2 * moveCount + 1]);
+        int col = entry >>> 1;
+        long top = Long.highestOneBit(mask & geometry.columnMask(col));
+        pieces[entry & 1] &= ~top;
+        mask &= ~top;
+        int index = Long.numberOfTrailingZeros(top);
+        hash ^= ZOBRIST[entry & 1][index];
+        mirrorHash ^= ZOBRIST[entry & 1][geometry.mirrorBit[index]];
+        evaluator.remove(index, entry & 1);
+    }
+
+    // Runs the rule set's post-move effect, logging the stones it started from for undo
+    private void applyEffect(long cell, int player) {
+        int base = 2 * (moveCount - 1);
+        effectLog[base] = effectScratch[X] = pieces[X];
+        effectLog[base + 1] = effectScratch[O] = pieces[O];
+        rules.afterMove(geometry, effectScratch, player, cell);
+        replaceStones(effectScratch[X], effectScratch[O]);
+    }
+
+    // Moves to the given stones, keeping the hash and window counts in step with every changed cell
+    private void replaceStones(long x, long o) {
+        replaceStones(X, x);
+        replaceStones(O, o);
+        mask = pieces[X] | pieces[O];
+    }
+
+    private void replaceStones(int player, long stones) {
+        for (long removed = pieces[player] & ~stones; removed != 0; removed &= removed - 1) {
+            int index = Long.numberOfTrailingZeros(removed);
+            hash ^= ZOBRIST[player][index];
+            mirrorHash ^= ZOBRIST[player][geometry.mirrorBit[index]];
+            evaluator.remove(index, player);
+        }
+        for (long added = stones & ~pieces[player]; added != 0; added &= added - 1) {
+            int index = Long.numberOfTrailingZeros(added);
+            hash ^= ZOBRIST[player][index];
+            mirrorHash ^= ZOBRIST[player][geometry.mirrorBit[index]];
+            evaluator.add(index, player);
+        }
+        pieces[player] = stones;
+    }
+
+    // Places a piece at an explicit cell (row 0 is the top row, like Board). Used when importing
+    // positions that were not built move by move, so it does not touch the undo history.
+    public void set(int row, int col, int player) {
+        int index = col * geometry.h1 + (geometry.getHeight() - 1 - row);
+        pieces[player] |= 1L << index;
+        mask |= 1L << index;
+        hash ^= ZOBRIST[player][index];
+        mirrorHash ^= ZOBRIST[player][geometry.mirrorBit[index]];
+        evaluator.add(index, player);
+    }
+
+    // Returns the player occupying (row, col) with row 0 at the top, or -1 when empty
+    public int cell(int row, int col) {
+        long bit = 1L << (col * geometry.h1 + (geometry.getHeight() - 1 - row));
+        if ((pieces[X] & bit) != 0) return X;
+        if ((pieces[O] & bit) != 0) return O;
+        return -1;
+    }
+
+    public boolean isWin(int player) {
+        return geometry.hasWin(pieces[player]);
+    }
+
+    // Static evaluation from the point of view of 'player' (to move); constant time
+    public int evaluate(int player) {
+        return evaluator.evaluate(pieces[X], pieces[O], mask, player);
+    }
+
+    public boolean isFull() {
+        return Long.bitCount(mask) == geometry.getCells();
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    public int getStoneCount() {
+        return Long.bitCount(mask);
+    }
+
+    // Every move played on this board, oldest first, as (col << 1 | player); stones put there with set()
+    // are not moves
+    public byte[] getMoves() {
+        byte[] moves = new byte[moveCount];
+        for (int i = 0; i < moveCount; i++) moves[i] = (byte) history[i];
+        return moves;
+    }
+
+    public long getPieces(int player) {
+        return pieces[player];
+    }
+
+    public long getMask() {
+        return mask;
+    }
+
+    // Zobrist key of the position with 'toMove' to play, for the transposition table. A position and its
+    // mirror image get the same key (the smaller of their two hashes), so one entry serves both; a column
+    // stored with the key or read from it goes through orient().
+    public long hash(int toMove) {
+        return Math.min(hash, mirrorHash) ^ SIDE_KEYS[toMove];
+    }
+
+    // Maps col between this position and the orientation hash() keys it under, both ways; -1 stays -1
+    public int orient(int col) {
+        return col < 0 || mirrorHash >= hash ? col : geometry.getWidth() - 1 - col;
+    }
+
+    // True when the position is its own mirror image, so col and width - 1 - col are the same move
+    public boolean isSymmetric() {
+        return geometry.mirror(pieces[X]) == pieces[X] && geometry.mirror(pieces[O]) == pieces[O];
+    }
+
+    // Empty cells where 'player' would complete a line
+    public long winningCells(int player) {
+        return geometry.winningCells(pieces[player]) & ~mask;
+    }
+
+    // Stones in col
+    public int height(int col) {
+        return Long.bitCount(mask & geometry.columnMask(col));
+    }
+
+    // Cells that can be played right now (the lowest empty cell of every open column)
+    public long playableCells() {
+        return (mask + geometry.bottomRow) & geometry.boardMask;
+    }
+
+    // Bit of the cell a move in col would fill, 0 if the column is full
+    public long moveCell(int col) {
+        return (mask + geometry.bottomMask(col)) & geometry.columnMask(col);
+    }
+
+}
@@ -4,11 +4,30 @@ public class Board {
     private String[][] board;
     public int lastX = -1;
     public int lastY = -1;
-    private int winCondition = 4;
-    private int width = 7;
-    private int height = 6;
+    private final int winCondition;
+    private final int width;
+    private final int height;
+    private final Geometry geometry;
+    private final RuleSet rules;
 
     public Board() {
+        this(Geometry.STANDARD, RuleSet.STANDARD);
+    }
+
+    public Board(int width, int height, int winCondition) {
+        this(width, height, winCondition, RuleSet.STANDARD);
+    }
+
+    public Board(int width, int height, int winCondition, RuleSet rules) {
+        this(rules.geometry(width, height, winCondition), rules);
+    }
+
+    private Board(Geometry geometry, RuleSet rules) {
+        this.geometry = geometry;
+        this.rules = rules;
+        this.width = geometry.getWidth();
+        this.height = geometry.getHeight();
+        this.winCondition = geometry.getWinLength();
         board = new String[height][width];
         for (int i = 0; i < height; i++) {
             for (int j = 0; j < width; j++) {
@@ -18,7 +37,7 @@ public class Board {
     }
 
     public Board(Board other) {
-        this();
+        this(other.geometry, other.rules);
         for (int i = 0; i < height; i++) {
             System.arraycopy(other.board[i], 0, this.board[i], 0, width);
         }
@@ -27,7 +46,11 @@ public class Board {
     }
 
     public boolean drop(int col, String piece, boolean updateLast) {
-        for (int row = height - 1; row >= 0; row--) {
+        if (rules.hasEffects()) return dropWithEffects(col, piece, updateLast);
+        // Stones stack from the bottom row, or from the top one under reversed gravity
+        boolean up = rules.getGravity() == RuleSet.Gravity.UP;
+        for (int i = height - 1; i >= 0; i--) {
+            int row = up ? height - 1 - i : i;
             if (board[row][col].equals("_")) {
                 board[row][col] = piece;
                 if (updateLast) {
@@ -40,8 +63,28 @@ public class Board {
         return false;
     }
 
+    // Effects can move or recolour stones anywhere, so the move is made on the bitboard and copied back
+    private boolean dropWithEffects(int col, String piece, boolean updateLast) {
+        if (!isColumnOpen(col)) return false;
+        BitBoard bits = toBitBoard();
+        bits.play(col, BitBoard.pieceIndex(piece));
+        for (int row = 0; row < height; row++) {
+            for (int c = 0; c < width; c++) {
+                int player = bits.cell(bitRow(row), c);
+                board[row][c] = player < 0 ? "_" : BitBoard.pieceName(player);
+            }
+        }
+        if (updateLast) {
+            // The mover's stone ends up on top of its column even when it fell into a captured cell
+            lastX = bitRow(height - bits.height(col));
+            lastY = col;
+        }
+        return true;
+    }
+
     public boolean isColumnOpen(int col) {
-        return board[0][col].equals("_");
+        int entry = rules.getGravity() == RuleSet.Gravity.UP ? height - 1 : 0;
+        return board[entry][col].equals("_");
     }
 
     public int getWidth() {
@@ -67,10 +110,32 @@ public class Board {
         return winCondition;
     }
 
+    public Geometry getGeometry() {
+        return geometry;
+    }
+
+    public RuleSet getRules() {
+        return rules;
+    }
+
+    // Packs the grid into the bitboard the AI searches on ("X" and "O" cells, anything else is empty)
+    public BitBoard toBitBoard() {
+        BitBoard bits = new BitBoard(geometry, rules);
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                int player = BitBoard.pieceIndex(board[row][col]);
+                if (player >= 0) bits.set(bitRow(row), col, player);
+            }
+        }
+        return bits;
+    }
+
     public String checkWin(int lastRow, int lastCol) {
         if (lastRow == -1 || lastCol == -1) return "no winner";
         String piece = board[lastRow][lastCol];
         if (piece.equals("_")) return "no winner";
+        // An effect can complete a line away from the last stone
+        if (rules.hasEffects()) return toBitBoard().isWin(BitBoard.pieceIndex(piece)) ? piece : "no winner";
         int[][] directions = {
             {1,0}, // vertical
             {0,1}, // horizontal
@@ -78,6 +143,7 @@ public class Board {
             {1,-1} // diagonal /
         };
         for (int[] d : directions) {
+            if (!geometry.getWinLines().includes(d[0], d[1])) continue;
             int count = 1;
             count += countDirection(
                 lastRow, // starting row
@@ -98,6 +164,11 @@ public class Board {
         return "no winner";
     }
 
+    // BitBoard always stacks from its bottom row, so reversed gravity is played upside down there
+    private int bitRow(int row) {
+        return rules.getGravity() == RuleSet.Gravity.UP ? height - 1 - row : row;
+    }
+
     private int countDirection(int startRow, int startCol, int deltaRow, int deltaCol, String targetPiece) {
         int matchedCount = 0;
         for (int step = 1; step < winCondition; step++) {
@@ -1,5 +1,20 @@
 package com.game.fourfront.model;
 
 public class BoardState {
-    public int[][] grid = new int[6][7]; // 6 rows x 7 columns
-}
\ No newline at end of file
+    public int width;
+    public int height;
+    public int winLength;
+    public int[][] grid; // height rows x width columns
+
+    public BoardState() {
+        this(Geometry.STANDARD.getWidth(), Geometry.STANDARD.getHeight(), Geometry.STANDARD.getWinLength());
+    }
+
+    public BoardState(int width, int height, int winLength) {
+        Geometry.of(width, height, winLength); // rejects sizes the engine can't play
+        this.width = width;
+        this.height = height;
+        this.winLength = winLength;
+        this.grid = new int[height][width];
+    }
+}
@@ -0,0 +1,247 @@
+package com.game.fourfront.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Append-only journal of every game played, for analytics. append() only queues the game, so the request
+// that ended it never waits on the disk (a full queue drops the game and counts it). One writer thread
+// takes whatever has queued up since its last write and appends it as a group forced to disk with a single
+// sync, so a busy server shares each sync among many games.
+//
+// The journal is a directory of segment files, a new one per start and whenever the current one passes
+// segmentBytes. Segment format (big-endian):
+//   int magic "FFGJ" | int version
+//   records: int body length | int CRC32C of the body | body
+//   body: long endedAtMs | byte width | byte height | byte winLength | byte winner (0 none, 1 X, 2 O, 3 draw)
+//         | byte length + rule set name | byte length + boss name (UTF-8, empty for none) | byte count + moves
+// Scans map each segment read-only and stop at the first record that is cut short or fails its checksum,
+// which is where a crash interrupted a write.
+public class GameJournal implements AutoCloseable {
+    private static final int MAGIC = 0x4646474A;
+    private static final int VERSION = 1;
+    private static final int MAX_BATCH = 4096;
+    private static final int MAX_RECORD = 8 + 8 + 5 + 256 + 256 + 256;
+    private static final String PREFIX = "games-";
+    private static final String SUFFIX = ".fgj";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final BlockingQueue<JournaledGame> pending;
+    private final Thread writer;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+    private final CRC32C crc = new CRC32C();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean closed;
+    private FileChannel segment; // only touched by the writer thread
+    private int segmentIndex;
+
+    private GameJournal() {
+        this.directory = null;
+        this.segmentBytes = 0;
+        this.pending = null;
+        this.writer = null;
+    }
+
+    // Journals into 'directory', queueing at most 'capacity' games for the writer
+    public GameJournal(Path directory, long segmentBytes, int capacity) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.pending = new ArrayBlockingQueue<>(capacity);
+        Files.createDirectories(directory);
+        for (Path file : segments(directory)) segmentIndex = Math.max(segmentIndex, indexOf(file));
+        this.writer = new Thread(this::run, "game-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // A journal that keeps nothing
+    public static GameJournal disabled() {
+        return new GameJournal();
+    }
+
+    // Queues the game for the writer; never blocks
+    public void append(JournaledGame game) {
+        if (pending == null) return;
+        if (closed || !pending.offer(game)) dropped.increment();
+    }
+
+    // Games on disk, and games lost to a full queue or a failed write
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    // Writes out what is still queued and stops the writer; an interrupted caller stops waiting for it
+    @Override
+    public void close() {
+        if (writer == null) return;
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<JournaledGame> batch = new ArrayList<>();
+        try {
+            while (!closed || !pending.isEmpty()) {
+                JournaledGame first = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                pending.drainTo(batch, MAX_BATCH - 1);
+                try {
+                    write(batch);
+                    written.add(batch.size());
+                } catch (IOException e) {
+                    dropped.add(batch.size());
+                    System.err.println("Game journal write failed: " + e);
+                    closeSegment(); // the next group starts a fresh segment
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeSegment();
+        }
+    }
+
+    private void write(List<JournaledGame> batch) throws IOException {
+        if (segment == null || segment.size() >= segmentBytes) openSegment();
+        buffer.clear();
+        for (JournaledGame game : batch) {
+            if (buffer.remaining() < MAX_RECORD) flush();
+            encode(game);
+        }
+        flush();
+        segment.force(false);
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) segment.write(buffer);
+        buffer.clear();
+    }
+
+    private void encode(JournaledGame game) {
+        int start = buffer.position();
+        buffer.position(start + 8);
+        buffer.putLong(game.endedAtMs);
+        buffer.put((byte) game.width).put((byte) game.height).put((byte) game.winLength);
+        buffer.put((byte) ("X".equals(game.winner) ? 1 : "O".equals(game.winner) ? 2 : "draw".equals(game.winner) ? 3 : 0));
+        putName(game.rules);
+        putName(game.boss);
+        buffer.put((byte) game.moves.length).put(game.moves);
+        int length = buffer.position() - start - 8;
+        crc.reset();
+        crc.update(buffer.slice(start + 8, length));
+        buffer.putInt(start, length).putInt(start + 4, (int) crc.getValue());
+    }
+
+    private void putName(String name) {
+        byte[] bytes = name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, 255);
+        buffer.put((byte) length).put(bytes, 0, length);
+    }
+
+    private void openSegment() throws IOException {
+        closeSegment();
+        Path file = directory.resolve(String.format("%s%06d%s", PREFIX, ++segmentIndex, SUFFIX));
+        segment = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(8).putInt(MAGIC).putInt(VERSION).flip();
+        while (header.hasRemaining()) segment.write(header);
+    }
+
+    private void closeSegment() {
+        if (segment == null) return;
+        try {
+            segment.close();
+        } catch (IOException e) {
+            System.err.println("Game journal close failed: " + e);
+        }
+        segment = null;
+    }
+
+    // Reads every game in the journal at 'directory', oldest segment first and in the order written
+    public static void scan(Path directory, Consumer<? super JournaledGame> consumer) throws IOException {
+        for (Path file : segments(directory)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (map.remaining() < 8 || map.getInt() != MAGIC) throw new IOException("Not a game journal: " + file);
+                int version = map.getInt();
+                if (version != VERSION) throw new IOException("Unsupported game journal version " + version + ": " + file);
+                CRC32C check = new CRC32C();
+                while (map.remaining() >= 8) {
+                    int length = map.getInt();
+                    int sum = map.getInt();
+                    if (length <= 0 || length > map.remaining()) break;
+                    ByteBuffer body = map.slice(map.position(), length);
+                    check.reset();
+                    check.update(body.duplicate());
+                    if ((int) check.getValue() != sum) break;
+                    consumer.accept(decode(body));
+                    map.position(map.position() + length);
+                }
+            }
+        }
+    }
+
+    private static JournaledGame decode(ByteBuffer body) {
+        JournaledGame game = new JournaledGame();
+        game.endedAtMs = body.getLong();
+        game.width = body.get();
+        game.height = body.get();
+        game.winLength = body.get();
+        int winner = body.get();
+        game.winner = winner == 1 ? "X" : winner == 2 ? "O" : winner == 3 ? "draw" : null;
+        game.rules = getName(body);
+        String boss = getName(body);
+        game.boss = boss.isEmpty() ? null : boss;
+        game.moves = new byte[body.get() & 0xFF];
+        body.get(game.moves);
+        return game;
+    }
+
+    private static String getName(ByteBuffer body) {
+        byte[] bytes = new byte[body.get() & 0xFF];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Segment files in the order they were written
+    private static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) return List.of();
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    private static int indexOf(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,10 @@
+package com.game.fourfront.model;
+
+// Outcome of one simulated game: the winner ("X", "O" or "draw") and the column every stone landed in,
+// plus the seed that replays it (the matchup with "seed" set to it and "games": 1)
+public class GameRecord {
+    public int index;
+    public long seed;
+    public String winner;
+    public int[] moves;
+}
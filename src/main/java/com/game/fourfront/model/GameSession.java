@@ -0,0 +1,261 @@
+package com.game.fourfront.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// One game against the AI kept on the server between requests: the position stays packed in a BitBoard
+// and the AIPlayer keeps its principal variation from turn to turn (its transposition table is the shared
+// one), so a turn only needs the column the human played. Calls on one session are serialized; different
+// sessions never share anything but the table.
+//
+// With pondering on, the AI keeps working after its move: the human's likely replies (the one its
+// principal variation predicts first) are searched on a PonderPool while the human thinks. When the
+// reply arrives, a ponder on it becomes the AI's answer, given the rest of the time budget if it is
+// still deepening; every other ponder is stopped, leaving what it found in the shared table. A ponder
+// never runs longer than PONDER_BUDGETS time budgets, or the pool's limit, so a human who walks away
+// doesn't keep a pool slot busy until the session is dropped.
+public class GameSession {
+    private static final int PONDER_BUDGETS = 4;
+
+    private final String id;
+    private final BitBoard bits;
+    private final RuleSet rules;
+    private final AIPlayer ai;
+    private final int aiIndex;
+    private final int humanIndex;
+    private final long seed;            // the AI's mistakes and random landings replay from this
+    private final SplittableRandom rng; // where stones land under rule sets with random outcomes
+    private final int[] outcomeCols;
+    private final int[] outcomeWeights;
+
+    private volatile long lastUsedMs;
+    private int winner = -1;
+    private boolean draw;
+    private int lastAiMove = -1;
+    private SearchResult lastSearch;
+
+    private GameJournal journal;
+    private PonderPool ponderPool;
+    private int ponderReplies;
+    private long ponderMaxMs;
+    private final Map<Integer, Ponder> ponders = new HashMap<>(); // by the human reply searched
+
+    // A background search of the position after one human reply
+    private static final class Ponder {
+        final AIPlayer ai;
+        final long startNanos = System.nanoTime();
+        final CompletableFuture<SearchResult> result = new CompletableFuture<>();
+
+        Ponder(AIPlayer ai) {
+            this.ai = ai;
+        }
+    }
+
+    // Outcome of one request: where each stone landed (-1 when that side did not move) and the AI's search
+    public static final class Turn {
+        public final int humanMove;
+        public final int aiMove;
+        public final SearchResult search;
+
+        Turn(int humanMove, int aiMove, SearchResult search) {
+            this.humanMove = humanMove;
+            this.aiMove = aiMove;
+            this.search = search;
+        }
+    }
+
+    public GameSession(String id, Board board, AIPlayer ai, String aiPiece) {
+        this(id, board, ai, aiPiece, new SplittableRandom().nextLong());
+    }
+
+    public GameSession(String id, Board board, AIPlayer ai, String aiPiece, long seed) {
+        this.id = id;
+        this.seed = seed;
+        this.rng = new SplittableRandom(AIPlayer.seedFor(seed, -1));
+        this.bits = board.toBitBoard();
+        this.rules = board.getRules();
+        this.ai = ai;
+        this.aiIndex = BitBoard.pieceIndex(aiPiece.equals("X") ? "X" : "O");
+        this.humanIndex = 1 - aiIndex;
+        this.outcomeCols = new int[board.getWidth()];
+        this.outcomeWeights = new int[board.getWidth()];
+        this.lastUsedMs = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    // Ponders up to 'replies' human replies after each AI move, each for at most maxMs; a null pool
+    // turns pondering off
+    public synchronized void setPondering(PonderPool ponderPool, int replies, long maxMs) {
+        this.ponderPool = ponderPool;
+        this.ponderReplies = replies;
+        this.ponderMaxMs = maxMs;
+    }
+
+    // Journals the game once it ends, or unfinished if it is closed before that
+    public synchronized void setJournal(GameJournal journal) {
+        this.journal = journal;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public RuleSet getRules() {
+        return rules;
+    }
+
+    public long getLastUsedMs() {
+        return lastUsedMs;
+    }
+
+    // Lets the AI open the game
+    public synchronized Turn playAi() {
+        lastUsedMs = System.currentTimeMillis();
+        if (isOver()) throw new IllegalStateException("Game " + id + " is over");
+        return aiTurn(-1, null);
+    }
+
+    // Plays the human's stone in col, then the AI's reply unless the game ended
+    public synchronized Turn playHuman(int col) {
+        lastUsedMs = System.currentTimeMillis();
+        if (isOver()) throw new IllegalStateException("Game " + id + " is over");
+        if (col < 0 || col >= bits.getWidth() || !bits.canPlay(col)) {
+            throw new IllegalArgumentException("Column " + col + " can't be played");
+        }
+        int landed = land(col);
+        Ponder hit = ponders.remove(landed);
+        stopPondering();
+        bits.play(landed, humanIndex);
+        checkEnd(humanIndex);
+        if (isOver()) return new Turn(landed, -1, null);
+        SearchResult pondered = hit == null ? null : finish(hit);
+        if (pondered != null) ai.adoptPrincipalVariation(pondered);
+        else ai.keepPrincipalVariation(lastAiMove, landed);
+        return aiTurn(landed, pondered);
+    }
+
+    private Turn aiTurn(int humanMove, SearchResult pondered) {
+        if (pondered == null) ai.setSeed(AIPlayer.seedFor(seed, bits.getMoveCount()));
+        lastSearch = pondered != null ? pondered : ai.search(bits);
+        int move = lastSearch.getMove();
+        lastAiMove = move < 0 ? -1 : land(move);
+        if (lastAiMove >= 0) {
+            bits.play(lastAiMove, aiIndex);
+            checkEnd(aiIndex);
+        }
+        if (ponderPool != null && !isOver()) startPondering();
+        return new Turn(humanMove, lastAiMove, lastSearch);
+    }
+
+    // Starts a ponder on each of the most likely human replies while pool slots last
+    private void startPondering() {
+        int[] pv = lastSearch.getPrincipalVariation();
+        int predicted = pv.length > 1 && pv[0] == lastAiMove ? pv[1] : -1;
+        int[] centerOut = bits.getGeometry().centerOut;
+        long budgetMs = ai.getTimeBudgetMs();
+        long limitMs = budgetMs > 0 ? Math.min(ponderMaxMs, budgetMs * PONDER_BUDGETS) : ponderMaxMs;
+        for (int i = -1; i < centerOut.length && ponders.size() < ponderReplies; i++) {
+            int reply = i < 0 ? predicted : centerOut[i];
+            if (reply < 0 || (i >= 0 && reply == predicted) || !bits.canPlay(reply)) continue;
+            BitBoard position = new BitBoard(bits);
+            position.play(reply, humanIndex);
+            if (position.isWin(humanIndex) || position.isWin(aiIndex) || position.isFull()) continue;
+            Ponder ponder = new Ponder(ai.ponderCopy(limitMs));
+            ponder.ai.setSeed(AIPlayer.seedFor(seed, position.getMoveCount()));
+            boolean started = ponderPool.trySubmit(() -> {
+                try {
+                    ponder.result.complete(ponder.ai.search(position));
+                } catch (RuntimeException e) {
+                    ponder.result.completeExceptionally(e);
+                }
+            });
+            if (!started) break;
+            ponders.put(reply, ponder);
+        }
+    }
+
+    // Result of a ponder on the reply actually played: it gets the AI's time budget counted from
+    // when it started, or runs to its depth when there is no budget. Null if it failed, or if its own
+    // limit stopped it short of the depth the AI searches to without a budget.
+    private SearchResult finish(Ponder ponder) {
+        long budgetMs = ai.getTimeBudgetMs();
+        if (budgetMs > 0) ponder.ai.stopAt(ponder.startNanos + budgetMs * 1_000_000L);
+        SearchResult result;
+        try {
+            result = ponder.result.join();
+        } catch (CompletionException e) {
+            return null;
+        }
+        boolean complete = budgetMs > 0 || result.isSolved()
+                || result.getDepthReached() >= ai.getSearchDepth(bits.getGeometry());
+        return complete ? result : null;
+    }
+
+    private void stopPondering() {
+        for (Ponder ponder : ponders.values()) ponder.ai.stop();
+        ponders.clear();
+    }
+
+    // Stops any background work; the session is not used afterwards
+    public synchronized void close() {
+        stopPondering();
+        if (!isOver() && bits.getMoveCount() > 0) journal();
+    }
+
+    private void journal() {
+        if (journal != null) journal.append(JournaledGame.of(bits.getGeometry(), rules, ai.getName(), getWinner(), bits.getMoves()));
+    }
+
+    // Column the stone aimed at col actually falls into; random only when the rule set says so
+    private int land(int col) {
+        return rules.land(bits, col, rng, outcomeCols, outcomeWeights);
+    }
+
+    // An effect can complete a line for either side, the mover's counts first
+    private void checkEnd(int mover) {
+        if (bits.isWin(mover)) winner = mover;
+        else if (bits.isWin(1 - mover)) winner = 1 - mover;
+        else draw = bits.isFull();
+        if (isOver()) journal();
+    }
+
+    public synchronized boolean isOver() {
+        return winner >= 0 || draw;
+    }
+
+    // "X" or "O" once someone has won, "draw" on a full board, otherwise null
+    public synchronized String getWinner() {
+        if (winner >= 0) return BitBoard.pieceName(winner);
+        return draw ? "draw" : null;
+    }
+
+    public synchronized SearchResult getLastSearch() {
+        return lastSearch;
+    }
+
+    // The position in BitBoard's base64 wire form, as /api/ai/move takes it
+    public synchronized String packed() {
+        return bits.toBase64();
+    }
+
+    // The grid as Board lays it out: row 0 at the top, "X", "O" or "_"
+    public synchronized String[][] cells() {
+        int width = bits.getWidth();
+        int height = bits.getGeometry().getHeight();
+        boolean up = rules.getGravity() == RuleSet.Gravity.UP;
+        String[][] cells = new String[height][width];
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                int player = bits.cell(up ? height - 1 - row : row, col);
+                cells[row][col] = player < 0 ? "_" : BitBoard.pieceName(player);
+            }
+        }
+        return cells;
+    }
+}
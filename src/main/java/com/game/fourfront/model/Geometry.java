@@ -0,0 +1,277 @@
+package com.game.fourfront.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Board size, win length and the lines that win. Everything the engine derives from them (bit layout
+// masks, the win detection shifts, evaluation windows, center-out move order) is worked out once when a
+// geometry is created, so BitBoard and the search only read precomputed fields. Instances are interned,
+// one per (width, height, winLength, lines), and can be compared with ==.
+//
+// The bit layout is BitBoard's: every column takes height + 1 bits, the top one a sentinel, so a board
+// fits in one long while width * (height + 1) <= 64 (7x6, 7x8, 5x5, ... but not 8x8).
+public final class Geometry {
+    // Lines that count as a win
+    public enum Lines {
+        ALL,      // horizontal, vertical and both diagonals
+        DIAGONAL; // diagonals only
+
+        public boolean includes(int dRow, int dCol) {
+            return this == ALL || (dRow != 0 && dCol != 0);
+        }
+    }
+
+    private static final Map<Long, Geometry> INTERNED = new ConcurrentHashMap<>();
+
+    public static final Geometry STANDARD = of(7, 6, 4);
+
+    private final int width;
+    private final int height;
+    private final int winLength;
+    private final Lines winLines;
+    private final int cells;
+    final int h1;
+    final long bottomRow;
+    final long boardMask;
+    final long salt; // mixed into Zobrist hashes so equal bit patterns on different geometries don't collide
+    final int[] centerOut;
+    final int[] mirrorBit; // bit index -> the same cell's index in the mirrored column
+    private final WinLines lines;
+    final ThreatEvaluator.Layout evaluation;
+
+    public static Geometry of(int width, int height, int winLength) {
+        return of(width, height, winLength, Lines.ALL);
+    }
+
+    public static Geometry of(int width, int height, int winLength, Lines winLines) {
+        if (width < 1 || height < 1 || width * (height + 1) > 64) {
+            throw new IllegalArgumentException("Unsupported board size " + width + "x" + height);
+        }
+        int longest = winLines == Lines.ALL ? Math.max(width, height) : Math.min(width, height);
+        if (winLength < 2 || winLength > longest) {
+            throw new IllegalArgumentException("Unsupported win length " + winLength + " on " + width + "x" + height);
+        }
+        long id = ((long) winLines.ordinal() << 48) | ((long) width << 32) | ((long) height << 16) | winLength;
+        return INTERNED.computeIfAbsent(id, k -> new Geometry(width, height, winLength, winLines, k));
+    }
+
+    private Geometry(int width, int height, int winLength, Lines winLines, long id) {
+        this.width = width;
+        this.height = height;
+        this.winLength = winLength;
+        this.winLines = winLines;
+        this.cells = width * height;
+        this.h1 = height + 1;
+        long row = 0;
+        for (int col = 0; col < width; col++) row |= 1L << (col * h1);
+        this.bottomRow = row;
+        this.boardMask = row * ((1L << height) - 1);
+        this.salt = new SplittableRandom(id).nextLong();
+        this.mirrorBit = new int[64];
+        for (int i = 0; i < 64; i++) {
+            mirrorBit[i] = i / h1 < width ? (width - 1 - i / h1) * h1 + i % h1 : i;
+        }
+        this.centerOut = new int[width];
+        for (int i = 0; i < width; i++) {
+            centerOut[i] = (width - 1) / 2 + (width % 2 == 1 ? 1 - 2 * (i % 2) : 2 * (i % 2) - 1) * ((i + 1) / 2);
+        }
+        // Fast paths: fixed four-in-a-row shift formulas, when every shift they use stays inside a long
+        if (winLength == 4 && 3 * (h1 + 1) < 64) {
+            this.lines = winLines == Lines.ALL ? new FourInARow(h1) : new DiagonalFour(h1);
+        } else {
+            this.lines = new RunOfN(this);
+        }
+        this.evaluation = new ThreatEvaluator.Layout(this);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    public Lines getWinLines() {
+        return winLines;
+    }
+
+    public int getCells() {
+        return cells;
+    }
+
+    // True when pos holds winLength in a row in any direction
+    boolean hasWin(long pos) {
+        return lines.hasWin(pos);
+    }
+
+    // Cells (occupied or not) that would complete winLength in a row for pos
+    long winningCells(long pos) {
+        return lines.winningCells(pos) & boardMask;
+    }
+
+    // The stones reflected left to right, column col moving to width - 1 - col. Win lines, evaluation
+    // and every rule set treat both sides alike, so a position and its mirror image are worth the same.
+    long mirror(long stones) {
+        long column = (1L << h1) - 1;
+        long mirrored = 0;
+        for (int col = 0; col < width; col++) {
+            mirrored |= ((stones >>> (col * h1)) & column) << ((width - 1 - col) * h1);
+        }
+        return mirrored;
+    }
+
+    long columnMask(int col) {
+        return ((1L << height) - 1) << (col * h1);
+    }
+
+    long bottomMask(int col) {
+        return 1L << (col * h1);
+    }
+
+    long topMask(int col) {
+        return 1L << (height - 1 + col * h1);
+    }
+
+    @Override
+    public String toString() {
+        return width + "x" + height + "/" + winLength + (winLines == Lines.ALL ? "" : " " + winLines);
+    }
+
+    // Win detection for one geometry, picked when the geometry is created
+    private interface WinLines {
+        boolean hasWin(long pos);
+
+        long winningCells(long pos);
+    }
+
+    // Connect Four proper: fixed shift formulas for each of the four directions
+    private static final class FourInARow implements WinLines {
+        private final int h1;
+
+        FourInARow(int h1) {
+            this.h1 = h1;
+        }
+
+        @Override
+        public boolean hasWin(long pos) {
+            // horizontal
+            long m = pos & (pos >>> h1);
+            if ((m & (m >>> (2 * h1))) != 0) return true;
+            // diagonal /
+            m = pos & (pos >>> (h1 + 1));
+            if ((m & (m >>> (2 * (h1 + 1)))) != 0) return true;
+            // diagonal \
+            m = pos & (pos >>> (h1 - 1));
+            if ((m & (m >>> (2 * (h1 - 1)))) != 0) return true;
+            // vertical
+            m = pos & (pos >>> 1);
+            return (m & (m >>> 2)) != 0;
+        }
+
+        @Override
+        public long winningCells(long pos) {
+            // vertical
+            long r = (pos << 1) & (pos << 2) & (pos << 3);
+            r |= lineCells(pos, h1);     // horizontal
+            r |= lineCells(pos, h1 - 1); // diagonal \
+            r |= lineCells(pos, h1 + 1); // diagonal /
+            return r;
+        }
+    }
+
+    // Diagonal-only four in a row: the two diagonal checks of FourInARow and nothing else
+    private static final class DiagonalFour implements WinLines {
+        private final int h1;
+
+        DiagonalFour(int h1) {
+            this.h1 = h1;
+        }
+
+        @Override
+        public boolean hasWin(long pos) {
+            // diagonal /
+            long m = pos & (pos >>> (h1 + 1));
+            if ((m & (m >>> (2 * (h1 + 1)))) != 0) return true;
+            // diagonal \
+            m = pos & (pos >>> (h1 - 1));
+            return (m & (m >>> (2 * (h1 - 1)))) != 0;
+        }
+
+        @Override
+        public long winningCells(long pos) {
+            return lineCells(pos, h1 - 1) | lineCells(pos, h1 + 1);
+        }
+    }
+
+    // Cells completing three of pos's pieces along the line with the given bit step, gaps included
+    private static long lineCells(long pos, int shift) {
+        long p = (pos << shift) & (pos << 2 * shift);
+        long r = p & (pos << 3 * shift);
+        r |= p & (pos >>> shift);
+        p = (pos >>> shift) & (pos >>> 2 * shift);
+        r |= p & (pos << shift);
+        r |= p & (pos >>> 3 * shift);
+        return r;
+    }
+
+    // Any other win length: runs are found by doubling (a run of 2r is a run of r next to another),
+    // and only along directions a line of winLength fits in, so no shift ever exceeds 63 bits
+    private static final class RunOfN implements WinLines {
+        private final int winLength;
+        private final int[] steps;
+
+        RunOfN(Geometry g) {
+            this.winLength = g.winLength;
+            int[] all = new int[4];
+            int n = 0;
+            boolean straight = g.winLines == Lines.ALL;
+            if (straight && g.winLength <= g.height) all[n++] = 1;       // vertical
+            if (straight && g.winLength <= g.width) all[n++] = g.h1;     // horizontal
+            if (g.winLength <= Math.min(g.width, g.height)) {
+                all[n++] = g.h1 - 1;                                     // diagonal \
+                all[n++] = g.h1 + 1;                                     // diagonal /
+            }
+            this.steps = Arrays.copyOf(all, n);
+        }
+
+        @Override
+        public boolean hasWin(long pos) {
+            for (int step : steps) {
+                long m = pos;
+                int run = 1;
+                while (run * 2 <= winLength) {
+                    m &= m >>> (run * step);
+                    run *= 2;
+                }
+                if (run < winLength) m &= m >>> ((winLength - run) * step);
+                if (m != 0) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public long winningCells(long pos) {
+            long r = 0;
+            for (int step : steps) {
+                // The missing cell sits at index 'gap' of the line, every other index must be occupied
+                for (int gap = 0; gap < winLength; gap++) {
+                    long line = -1L;
+                    for (int i = 0; i < winLength && line != 0; i++) {
+                        if (i == gap) continue;
+                        int offset = (i - gap) * step;
+                        line &= offset > 0 ? pos >>> offset : pos << -offset;
+                    }
+                    r |= line;
+                }
+            }
+            return r;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.game.fourfront.model;
+
+// One game as the GameJournal keeps it: board size and rule set, the boss played (the AI's name, null
+// for a game between two players), the result and every move as (col << 1 | player), BitBoard's form
+public class JournaledGame {
+    public long endedAtMs;
+    public int width;
+    public int height;
+    public int winLength;
+    public String rules;
+    public String boss;
+    public String winner; // "X", "O", "draw", or null for a game left unfinished
+    public byte[] moves;
+
+    public static JournaledGame of(Geometry geometry, RuleSet rules, String boss, String winner, byte[] moves) {
+        JournaledGame game = new JournaledGame();
+        game.endedAtMs = System.currentTimeMillis();
+        game.width = geometry.getWidth();
+        game.height = geometry.getHeight();
+        game.winLength = geometry.getWinLength();
+        game.rules = rules.getName();
+        game.boss = boss;
+        game.winner = winner;
+        game.moves = moves;
+        return game;
+    }
+
+    // The position after the first 'plies' moves, replayed on the engine's board
+    public BitBoard replay(int plies) {
+        RuleSet ruleSet = RuleSet.named(rules);
+        BitBoard bits = new BitBoard(ruleSet.geometry(width, height, winLength), ruleSet);
+        for (int i = 0; i < plies; i++) bits.play(moves[i] >> 1, moves[i] & 1);
+        return bits;
+    }
+}
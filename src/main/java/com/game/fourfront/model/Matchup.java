@@ -0,0 +1,13 @@
+package com.game.fourfront.model;
+
+// A series of AI-vs-AI games under one board and rule set; X moves first
+public class Matchup {
+    public int width = 7;
+    public int height = 6;
+    public int winLength = 4;
+    public String rules = "standard";
+    public AIConfig x = new AIConfig();
+    public AIConfig o = new AIConfig();
+    public int games = 1;
+    public Long seed; // game i is played from seed + i; null picks a fresh seed per game
+}
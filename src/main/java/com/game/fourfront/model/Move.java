@@ -2,4 +2,5 @@ package com.game.fourfront.model;
 
 public class Move {
     public int column; // column where player wants to place piece
+    public int playerId = 1; // 1 or 2
 }
\ No newline at end of file
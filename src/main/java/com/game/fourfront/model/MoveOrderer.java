@@ -0,0 +1,119 @@
+package com.game.fourfront.model;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+// Move ordering stage for the alpha-beta search. Each heuristic can be switched off on its own so its
+// effect on pruning can be measured; with none enabled moves come back left to right like the old
+// getValidMoves. One orderer belongs to one search worker (killers and history are not thread-safe).
+public class MoveOrderer {
+    public enum Heuristic {
+        CENTER_FIRST, // static center-out column order
+        TABLE_MOVE,   // principal variation and transposition table best move first
+        WIN_BLOCK,    // forced blocks first, moves that hand the opponent a win last
+        KILLERS,      // two moves per ply that recently caused a beta cutoff
+        HISTORY       // per player/column cutoff counts weighted by depth squared
+    }
+
+    public static final Set<Heuristic> ALL = Collections.unmodifiableSet(EnumSet.allOf(Heuristic.class));
+
+    private static final int PV_BONUS = 1 << 30;
+    private static final int BLOCK_BONUS = 1 << 29;
+    private static final int TABLE_BONUS = 1 << 28;
+    private static final int KILLER_BONUS = 1 << 27;
+    private static final int HISTORY_CAP = 1 << 20;
+    private static final int LOSING_PENALTY = 1 << 29;
+
+    private final boolean centerFirst;
+    private final boolean tableMove;
+    private final boolean winBlock;
+    private final boolean killers;
+    private final boolean history;
+    private final boolean exactWins; // a stone lands where it is aimed and stays there, so a winning cell is a win
+
+    private final int width;
+    private final int[] centerOut;
+    private final int[][] killerMoves;
+    private final int[][] historyScores;
+    private final int[] keys;
+
+    public MoveOrderer(Set<Heuristic> heuristics, Geometry geometry, RuleSet rules) {
+        this.centerFirst = heuristics.contains(Heuristic.CENTER_FIRST);
+        this.tableMove = heuristics.contains(Heuristic.TABLE_MOVE);
+        this.winBlock = heuristics.contains(Heuristic.WIN_BLOCK);
+        this.killers = heuristics.contains(Heuristic.KILLERS);
+        this.history = heuristics.contains(Heuristic.HISTORY);
+        this.exactWins = !rules.hasEffects() && !rules.hasChance();
+        this.width = geometry.getWidth();
+        this.centerOut = geometry.centerOut;
+        this.historyScores = new int[2][width];
+        this.keys = new int[width];
+        this.killerMoves = new int[geometry.getCells() + 1][2];
+        for (int[] k : killerMoves) {
+            k[0] = -1;
+            k[1] = -1;
+        }
+    }
+
+    // True when 'player' can complete four in a row with one move, so the node needs no search
+    public boolean canWinNow(BitBoard bits, int player) {
+        return winBlock && exactWins && (bits.winningCells(player) & bits.playableCells()) != 0;
+    }
+
+    // Writes the legal moves for 'player' into out, best first, and returns how many there are
+    public int order(BitBoard bits, int ply, int player, int pvMove, int ttMove, int[] out) {
+        long threats = 0;
+        long underThreats = 0;
+        if (winBlock) {
+            // Cells where the opponent would win: play on them now, never directly beneath them
+            long oppWins = bits.winningCells(1 - player);
+            threats = oppWins & bits.playableCells();
+            underThreats = (oppWins >>> 1) & bits.playableCells();
+        }
+
+        int count = 0;
+        for (int i = 0; i < width; i++) {
+            int move = centerFirst ? centerOut[i] : i;
+            if (!bits.canPlay(move)) continue;
+            int key = width - i; // static order breaks ties
+            if (tableMove && move == pvMove) key += PV_BONUS;
+            if (tableMove && move == ttMove) key += TABLE_BONUS;
+            if (winBlock) {
+                long cell = bits.moveCell(move);
+                if ((cell & threats) != 0) key += BLOCK_BONUS;
+                else if ((cell & underThreats) != 0) key -= LOSING_PENALTY;
+            }
+            if (killers && (move == killerMoves[ply][0] || move == killerMoves[ply][1])) {
+                key += move == killerMoves[ply][0] ? KILLER_BONUS + (KILLER_BONUS >> 1) : KILLER_BONUS;
+            }
+            if (history) key += historyScores[player][move] << 3;
+
+            // Insertion sort, at most width entries
+            int j = count++;
+            while (j > 0 && keys[j - 1] < key) {
+                keys[j] = keys[j - 1];
+                out[j] = out[j - 1];
+                j--;
+            }
+            keys[j] = key;
+            out[j] = move;
+        }
+        return count;
+    }
+
+    // Called when 'move' caused a beta cutoff at this ply
+    public void recordCutoff(int ply, int player, int move, int depth) {
+        if (killers && killerMoves[ply][0] != move) {
+            killerMoves[ply][1] = killerMoves[ply][0];
+            killerMoves[ply][0] = move;
+        }
+        if (history) {
+            int[] scores = historyScores[player];
+            scores[move] += depth * depth;
+            if (scores[move] > HISTORY_CAP) {
+                for (int i = 0; i < scores.length; i++) scores[i] >>= 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.game.fourfront.model;
+
+// Body of /api/ai/move (and of each /api/ai/batch/moves position), bound straight from the JSON. The
+// position comes either as "bits", BitBoard's packed form decoded without any intermediate collection,
+// or as the "board" grid of "X", "O" and "_" (row 0 at the top) that the endpoint has always taken.
+public class MoveRequest {
+    public String bits;
+    public String[][] board;
+    public Integer width;  // defaults to the grid's, or 7 with "bits"
+    public Integer height; // defaults to the grid's, or 6 with "bits"
+    public int winLength = 4;
+    public String rules = RuleSet.STANDARD.getName();
+    public String aiPiece = "X";
+    public Integer aiDepth; // defaults to 4, or as deep as the time budget allows when there is one
+    public double mistakeRate = 0.1;
+    public String aiName = "AI";
+    public long timeBudgetMs = 0;
+    public String mode = "search"; // "search" or "solver"
+    public boolean stats;           // adds the search statistics to the response
+    public Long seed;               // the same seed and position give the same move, mistakes included
+
+    // The position to search; IllegalArgumentException when it can't be read
+    public BitBoard toBitBoard() {
+        RuleSet ruleSet = RuleSet.named(rules);
+        if (bits != null) {
+            Geometry geometry = ruleSet.geometry(width != null ? width : 7, height != null ? height : 6, winLength);
+            return BitBoard.fromBase64(geometry, ruleSet, bits);
+        }
+        if (board == null) throw new IllegalArgumentException("Expecting \"bits\" or \"board\"");
+        int rows = height != null ? height : board.length;
+        int cols = width != null ? width : board.length == 0 || board[0] == null ? 0 : board[0].length;
+        Geometry geometry = ruleSet.geometry(cols, rows, winLength);
+        if (board.length != rows) throw new IllegalArgumentException("Expecting " + rows + " rows, not " + board.length);
+        // Packed like the "bits" form, so both go through the same checks; grid row 0 is the top, and bit rows
+        // count from where stones come to rest (the grid's top under reversed gravity)
+        boolean up = ruleSet.getGravity() == RuleSet.Gravity.UP;
+        long[] stones = new long[2];
+        for (int row = 0; row < rows; row++) {
+            if (board[row] == null || board[row].length != cols) {
+                throw new IllegalArgumentException("Expecting " + cols + " cells in row " + row);
+            }
+            int bitRow = up ? row : rows - 1 - row;
+            for (int col = 0; col < cols; col++) {
+                int player = BitBoard.pieceIndex(board[row][col]);
+                if (player >= 0) stones[player] |= 1L << (col * geometry.h1 + bitRow);
+            }
+        }
+        return new BitBoard(geometry, ruleSet, stones[BitBoard.X], stones[BitBoard.O]);
+    }
+
+    // The AI's settings; IllegalArgumentException for a mode other than "search" or "solver"
+    public AIConfig toConfig() {
+        if (!"search".equals(mode) && !"solver".equals(mode)) throw new IllegalArgumentException("Unknown mode " + mode);
+        AIConfig config = new AIConfig();
+        config.name = aiName;
+        config.depth = aiDepth != null ? aiDepth : timeBudgetMs > 0 ? AIPlayer.MAX_DEPTH : 4;
+        config.mistakeRate = mistakeRate;
+        config.timeBudgetMs = timeBudgetMs;
+        config.mode = mode;
+        config.seed = seed;
+        return config;
+    }
+}
@@ -0,0 +1,31 @@
+package com.game.fourfront.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import java.util.Map;
+
+// Answer of /api/ai/move: the fields it has always returned, written straight from one search
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MoveResponse {
+    public int move;
+    public String explanation;
+    public int depthReached;
+    public boolean solved;
+    public List<Map<String, Integer>> rankedMoves; // top 3 {move, score}, best first, for the frontend hints
+    public Integer[] scores;
+    public int[] principalVariation;
+    public Map<String, Object> stats;              // only when the request asked for them
+
+    public static MoveResponse of(SearchResult result, boolean stats) {
+        MoveResponse resp = new MoveResponse();
+        resp.move = result.getMove();
+        resp.explanation = result.getExplanation();
+        resp.depthReached = result.getDepthReached();
+        resp.solved = result.isSolved();
+        resp.rankedMoves = result.getRankedMoves(3);
+        resp.scores = result.getColumnScores();
+        resp.principalVariation = result.getPrincipalVariation();
+        if (stats) resp.stats = result.getStats().toMap();
+        return resp;
+    }
+}
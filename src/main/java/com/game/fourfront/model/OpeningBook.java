@@ -0,0 +1,91 @@
+package com.game.fourfront.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+// Precomputed solver scores for early 7x6 positions, which are too expensive to solve in real time.
+// Binary format (big-endian):
+//   int magic "FFOB" | int version | int maxMoves | int count
+//   count x (7-byte position key | signed byte score), sorted by key
+// Keys are the solver's (side-to-move stones + mask, the smaller of a position's and its mirror image's)
+// and scores are from the side to move's view. Books holding both mirror images' keys still read fine.
+public class OpeningBook {
+    public static final int NONE = Integer.MIN_VALUE;
+    public static final String RESOURCE = "/ai/opening-book.bin";
+    private static final int MAGIC = 0x46464F42;
+    private static final int VERSION = 1;
+
+    private final long[] keys;
+    private final byte[] scores;
+    private final int maxMoves;
+
+    public OpeningBook(long[] keys, byte[] scores, int maxMoves) {
+        this.keys = keys;
+        this.scores = scores;
+        this.maxMoves = maxMoves;
+    }
+
+    public static OpeningBook empty() {
+        return new OpeningBook(new long[0], new byte[0], -1);
+    }
+
+    // Loads the book bundled on the classpath, or an empty book when none is packaged
+    public static OpeningBook loadDefault() throws IOException {
+        try (InputStream in = OpeningBook.class.getResourceAsStream(RESOURCE)) {
+            return in == null ? empty() : read(in);
+        }
+    }
+
+    public static OpeningBook read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) throw new IOException("Not an opening book");
+        int version = data.readInt();
+        if (version != VERSION) throw new IOException("Unsupported opening book version " + version);
+        int maxMoves = data.readInt();
+        int count = data.readInt();
+        long[] keys = new long[count];
+        byte[] scores = new byte[count];
+        for (int i = 0; i < count; i++) {
+            long key = 0;
+            for (int b = 0; b < 7; b++) key = (key << 8) | data.readUnsignedByte();
+            keys[i] = key;
+            scores[i] = data.readByte();
+        }
+        return new OpeningBook(keys, scores, maxMoves);
+    }
+
+    // Writes the book; keys must already be sorted
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(maxMoves);
+        data.writeInt(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            for (int b = 6; b >= 0; b--) data.writeByte((int) (keys[i] >>> (8 * b)));
+            data.writeByte(scores[i]);
+        }
+        data.flush();
+    }
+
+    // Score for the side to move, or NONE when the position is not in the book
+    public int lookup(long key) {
+        int index = Arrays.binarySearch(keys, key);
+        return index >= 0 ? scores[index] : NONE;
+    }
+
+    // Positions with more stones than this are never in the book
+    public int getMaxMoves() {
+        return maxMoves;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+}
@@ -0,0 +1,80 @@
+package com.game.fourfront.model;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Offline tool that solves every 7x6 position with up to maxMoves stones and writes the opening book.
+// Run through the Gradle task: ./gradlew generateOpeningBook -PbookPlies=8
+// Positions where the side to move wins at once are skipped since the solver proves those instantly, and
+// a position's mirror image shares its key, so only one of the two is solved and stored.
+public class OpeningBookBuilder {
+
+    public static void main(String[] args) throws IOException {
+        int maxMoves = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        Path output = Path.of(args.length > 1 ? args[1] : "src/main/resources/ai/opening-book.bin");
+        long tableMb = args.length > 2 ? Long.parseLong(args[2]) : 1024;
+
+        // key -> {side-to-move stones, mask}
+        Map<Long, long[]> positions = new HashMap<>();
+        collect(0L, 0L, 0, maxMoves, positions);
+        long[] keys = positions.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.println("Solving " + keys.length + " positions up to " + maxMoves + " moves");
+
+        // Deepest positions first, so shallower solves find their subtrees in the table
+        Long[] byDepth = positions.keySet().toArray(new Long[0]);
+        Arrays.sort(byDepth, (a, b) -> Long.bitCount(positions.get(b)[1]) - Long.bitCount(positions.get(a)[1]));
+
+        Solver solver = new Solver(new TranspositionTable(tableMb << 20), OpeningBook.empty());
+        Map<Long, Byte> solved = new HashMap<>();
+        long start = System.nanoTime();
+        for (Long key : byDepth) {
+            long[] position = positions.get(key);
+            solved.put(key, (byte) solver.solve(toBitBoard(position[0], position[1]), BitBoard.X));
+            if (solved.size() % 100 == 0) {
+                System.out.printf("%d/%d solved, %.1fs%n", solved.size(), keys.length, (System.nanoTime() - start) / 1e9);
+            }
+        }
+
+        byte[] scores = new byte[keys.length];
+        for (int i = 0; i < keys.length; i++) scores[i] = solved.get(keys[i]);
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        try (OutputStream out = new FileOutputStream(output.toFile())) {
+            new OpeningBook(keys, scores, maxMoves).write(out);
+        }
+        System.out.println("Wrote " + keys.length + " entries to " + output);
+    }
+
+    // Depth-first walk over every position reachable in up to maxMoves moves; a mirror image already seen
+    // is not walked again, its subtree being the mirror of one that was
+    private static void collect(long current, long mask, int moves, int maxMoves, Map<Long, long[]> positions) {
+        if (Solver.canWinNext(current, mask)) return;
+        if (positions.putIfAbsent(Solver.key(current, mask), new long[] {current, mask}) != null) return;
+        if (moves == maxMoves) return;
+        Geometry g = Solver.GEOMETRY;
+        for (int col = 0; col < g.getWidth(); col++) {
+            long move = (mask + g.bottomRow) & g.columnMask(col);
+            if (move == 0) continue;
+            collect(current ^ mask, mask | move, moves + 1, maxMoves, positions);
+        }
+    }
+
+    // Side to move becomes X
+    private static BitBoard toBitBoard(long current, long mask) {
+        Geometry g = Solver.GEOMETRY;
+        BitBoard bits = new BitBoard(g);
+        for (int col = 0; col < g.getWidth(); col++) {
+            for (int row = 0; row < g.getHeight(); row++) {
+                long cell = 1L << (col * g.h1 + row);
+                if ((mask & cell) == 0) continue;
+                bits.set(g.getHeight() - 1 - row, col, (current & cell) != 0 ? BitBoard.X : BitBoard.O);
+            }
+        }
+        return bits;
+    }
+}
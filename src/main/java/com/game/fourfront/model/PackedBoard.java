@@ -0,0 +1,90 @@
+package com.game.fourfront.model;
+
+import java.util.Arrays;
+
+// Immutable game position in BitBoard's packed layout: one long of stones per player plus the moves that
+// led there, so a move makes a new PackedBoard of a few words and a game's state can be swapped
+// atomically. Players are the ids 1 and 2 that BoardState grids use (0 is an empty cell).
+public final class PackedBoard {
+    private final Geometry geometry;
+    private final long first;  // stones of player 1
+    private final long second; // stones of player 2
+    private final int winner;  // player id that completed a line, 0 while nobody has
+    private final byte[] moves; // (col << 1 | playerId - 1) per move, as BitBoard keeps its history
+
+    private PackedBoard(Geometry geometry, long first, long second, int winner, byte[] moves) {
+        this.geometry = geometry;
+        this.first = first;
+        this.second = second;
+        this.winner = winner;
+        this.moves = moves;
+    }
+
+    public static PackedBoard empty(Geometry geometry) {
+        return new PackedBoard(geometry, 0, 0, 0, new byte[0]);
+    }
+
+    // The position after playerId drops a stone in col, or null when the game is over or col is off the
+    // board or full
+    public PackedBoard play(int col, int playerId) {
+        if (playerId != 1 && playerId != 2) throw new IllegalArgumentException("Unknown player " + playerId);
+        if (isOver() || col < 0 || col >= geometry.getWidth()) return null;
+        long mask = first | second;
+        if ((mask & geometry.topMask(col)) != 0) return null;
+        long cell = (mask + geometry.bottomMask(col)) & geometry.columnMask(col);
+        long own = (playerId == 1 ? first : second) | cell;
+        int won = geometry.hasWin(own) ? playerId : 0;
+        byte[] played = Arrays.copyOf(moves, moves.length + 1);
+        played[moves.length] = (byte) (col << 1 | (playerId - 1));
+        return playerId == 1
+                ? new PackedBoard(geometry, own, second, won, played)
+                : new PackedBoard(geometry, first, own, won, played);
+    }
+
+    public Geometry getGeometry() {
+        return geometry;
+    }
+
+    // Player id of the first line completed, 0 if none
+    public int getWinner() {
+        return winner;
+    }
+
+    public int getStoneCount() {
+        return Long.bitCount(first | second);
+    }
+
+    public boolean isFull() {
+        return getStoneCount() == geometry.getCells();
+    }
+
+    // Won or full; no more moves can be played
+    public boolean isOver() {
+        return winner != 0 || isFull();
+    }
+
+    // Every move so far, oldest first, as (col << 1 | playerId - 1)
+    public byte[] getMoves() {
+        return moves.clone();
+    }
+
+    // Row (0 at the top) the last stone in col landed on, -1 for an empty column
+    public int topRow(int col) {
+        int stones = Long.bitCount((first | second) & geometry.columnMask(col));
+        return stones == 0 ? -1 : geometry.getHeight() - stones;
+    }
+
+    // Copy as a BoardState grid (height rows x width columns, row 0 at the top)
+    public BoardState toBoardState() {
+        int width = geometry.getWidth();
+        int height = geometry.getHeight();
+        BoardState state = new BoardState(width, height, geometry.getWinLength());
+        for (int col = 0; col < width; col++) {
+            for (int row = 0; row < height; row++) {
+                long bit = 1L << (col * geometry.h1 + (height - 1 - row));
+                state.grid[row][col] = (first & bit) != 0 ? 1 : (second & bit) != 0 ? 2 : 0;
+            }
+        }
+        return state;
+    }
+}
@@ -0,0 +1,35 @@
+package com.game.fourfront.model;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+// Background executor for pondering, bounded to a fixed number of searches at a time: a search that
+// finds every slot taken is not started, so pondering never queues up behind real moves
+public class PonderPool {
+    private final ExecutorService executor;
+    private final Semaphore slots;
+
+    public PonderPool(ExecutorService executor, int maxSearches) {
+        this.executor = executor;
+        this.slots = new Semaphore(maxSearches);
+    }
+
+    // Runs task in the background if a slot is free; returns false without running it otherwise
+    public boolean trySubmit(Runnable task) {
+        if (!slots.tryAcquire()) return false;
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    slots.release();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.game.fourfront.model;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Rule variant a game is played under (one per boss gimmick): where stones fall, which lines win and
+// an optional effect applied after every move. A variant is fixed for the whole game and everything it
+// changes is settled when a board is created, so the search never asks which rules are in play:
+//  - gravity is handled where Board and BitBoard meet, by flipping rows, so the search always plays
+//    stones that fall down and reversed gravity costs nothing
+//  - the winning lines select the Geometry, which picks a win check specialised for them
+//  - only variants with an effect pay for it; BitBoard checks one final flag after each move
+//  - only variants with random outcomes pay for chance nodes; the search checks one final flag per move
+public abstract class RuleSet {
+    public enum Gravity {
+        DOWN, // stones stack from the bottom row
+        UP    // stones stack from the top row
+    }
+
+    public static final RuleSet STANDARD = new Plain("standard", Gravity.DOWN, Geometry.Lines.ALL);
+    public static final RuleSet DIAGONAL = new Plain("diagonal", Gravity.DOWN, Geometry.Lines.DIAGONAL);
+    public static final RuleSet REVERSED_GRAVITY = new Plain("reversed-gravity", Gravity.UP, Geometry.Lines.ALL);
+    public static final RuleSet DESTROY = new Destroy();
+    public static final RuleSet SWAP = new Swap();
+    public static final RuleSet CORRUPTION = new Corruption();
+
+    private static final List<RuleSet> ALL = List.of(STANDARD, DIAGONAL, REVERSED_GRAVITY, DESTROY, SWAP, CORRUPTION);
+
+    private final String name;
+    private final Gravity gravity;
+    private final Geometry.Lines winLines;
+    private final boolean effects;
+    private final boolean chance;
+    final long salt; // mixed into Zobrist hashes when the same stones are worth something else here
+
+    RuleSet(String name, Gravity gravity, Geometry.Lines winLines, boolean effects) {
+        this(name, gravity, winLines, effects, false);
+    }
+
+    RuleSet(String name, Gravity gravity, Geometry.Lines winLines, boolean effects, boolean chance) {
+        this.name = name;
+        this.gravity = gravity;
+        this.winLines = winLines;
+        this.effects = effects;
+        this.chance = chance;
+        // Gravity and winning lines are already part of the bitboard and the geometry; only effects
+        // and random outcomes change what a position is worth
+        this.salt = effects || chance ? name.hashCode() * 0x9E3779B97F4A7C15L : 0;
+    }
+
+    public static RuleSet named(String name) {
+        for (RuleSet rules : ALL) {
+            if (rules.name.equals(name)) return rules;
+        }
+        throw new IllegalArgumentException("Unknown rule set " + name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Gravity getGravity() {
+        return gravity;
+    }
+
+    public Geometry.Lines getWinLines() {
+        return winLines;
+    }
+
+    // True when afterMove changes the position
+    public boolean hasEffects() {
+        return effects;
+    }
+
+    // True when a move does not always land where it was aimed, so the search needs chance nodes
+    public boolean hasChance() {
+        return chance;
+    }
+
+    public Geometry geometry(int width, int height, int winLength) {
+        return Geometry.of(width, height, winLength, winLines);
+    }
+
+    // Post-move effect on the packed stones (pieces[X], pieces[O]) after 'player' dropped a stone on
+    // 'cell'. Only called when hasEffects(). It must depend on nothing but the position, so a board
+    // rebuilt from its cells plays on exactly like the one that was played move by move, and must treat
+    // left and right alike, since a position and its mirror image share transposition table entries.
+    void afterMove(Geometry g, long[] pieces, int player, long cell) {
+    }
+
+    // Columns a stone aimed at 'col' may land in and their integer weights, most likely first; returns
+    // how many there are. Only called when hasChance() and canPlay(col), and every column returned
+    // must be playable. Like afterMove, it must depend on nothing but the position and be mirror symmetric.
+    int outcomes(BitBoard bits, int col, int[] cols, int[] weights) {
+        cols[0] = col;
+        weights[0] = 1;
+        return 1;
+    }
+
+    // Column a stone aimed at col falls into in an actual game, rolled with rng; col itself unless
+    // hasChance(). cols and weights are scratch space of at least the board width.
+    int land(BitBoard bits, int col, SplittableRandom rng, int[] cols, int[] weights) {
+        if (!chance) return col;
+        int count = outcomes(bits, col, cols, weights);
+        int total = 0;
+        for (int i = 0; i < count; i++) total += weights[i];
+        int roll = rng.nextInt(total);
+        for (int i = 0; i < count; i++) {
+            roll -= weights[i];
+            if (roll < 0) return cols[i];
+        }
+        return col;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private static final class Plain extends RuleSet {
+        Plain(String name, Gravity gravity, Geometry.Lines winLines) {
+            super(name, gravity, winLines, false);
+        }
+    }
+
+    // Destroys player pieces (Thanh): a stone that lands on an opponent stone sitting on one of the
+    // mover's own captures it, and drops into its place
+    private static final class Destroy extends RuleSet {
+        Destroy() {
+            super("destroy", Gravity.DOWN, Geometry.Lines.ALL, true);
+        }
+
+        @Override
+        void afterMove(Geometry g, long[] pieces, int player, long cell) {
+            long below = cell >>> 1;
+            // The sentinel row keeps both cells inside the stone's own column
+            if ((pieces[1 - player] & below) != 0 && (pieces[player] & (cell >>> 2)) != 0) {
+                pieces[1 - player] &= ~below;
+                pieces[player] = (pieces[player] & ~cell) | below;
+            }
+        }
+    }
+
+    // Swaps player pieces (Hana): a stone that flanks a single opponent stone in its row together with
+    // one of the mover's own turns it over, on either side
+    private static final class Swap extends RuleSet {
+        Swap() {
+            super("swap", Gravity.DOWN, Geometry.Lines.ALL, true);
+        }
+
+        @Override
+        void afterMove(Geometry g, long[] pieces, int player, long cell) {
+            int step = g.h1;
+            long flipped = 0;
+            if ((pieces[1 - player] & (cell >>> step)) != 0 && (pieces[player] & (cell >>> 2 * step)) != 0) {
+                flipped |= cell >>> step;
+            }
+            if ((pieces[1 - player] & (cell << step)) != 0 && (pieces[player] & (cell << 2 * step)) != 0) {
+                flipped |= cell << step;
+            }
+            pieces[1 - player] &= ~flipped;
+            pieces[player] |= flipped;
+        }
+    }
+
+    // Corrupts moves (Hayden): a stone lands where it was aimed two times in three, otherwise it slips
+    // one column left or right. A slip off the board or into a full column stays in the aimed column.
+    private static final class Corruption extends RuleSet {
+        private static final int AIMED_WEIGHT = 4;
+        private static final int SLIP_WEIGHT = 1;
+
+        Corruption() {
+            super("corruption", Gravity.DOWN, Geometry.Lines.ALL, false, true);
+        }
+
+        @Override
+        int outcomes(BitBoard bits, int col, int[] cols, int[] weights) {
+            int count = 1;
+            cols[0] = col;
+            weights[0] = AIMED_WEIGHT;
+            for (int side = col - 1; side <= col + 1; side += 2) {
+                if (side >= 0 && side < bits.getWidth() && bits.canPlay(side)) {
+                    cols[count] = side;
+                    weights[count++] = SLIP_WEIGHT;
+                } else {
+                    weights[0] += SLIP_WEIGHT;
+                }
+            }
+            return count;
+        }
+    }
+}
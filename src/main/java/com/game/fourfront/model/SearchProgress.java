@@ -0,0 +1,12 @@
+package com.game.fourfront.model;
+
+// Where a search stands after one completed depth of iterative deepening: the move it would play if it
+// stopped now (before any deliberate mistake), its score, the line it expects and the cost so far
+public class SearchProgress {
+    public int depth;
+    public int move;
+    public int score;
+    public int[] principalVariation;
+    public long nodes;
+    public long elapsedMs;
+}
@@ -0,0 +1,88 @@
+package com.game.fourfront.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Outcome of one AIPlayer search: the move actually chosen (which may be a deliberate mistake),
+// root moves ranked best first with their scores, and the engine's principal variation
+public class SearchResult {
+    private final int move;
+    private final String explanation;
+    private final int[] rankedMoves;
+    private final int[] rankedScores;
+    private final int[] principalVariation;
+    private final int depthReached;
+    private final long[] nodesPerDepth;
+    private final boolean solved;
+    private final int width;
+    private final SearchStats stats;
+
+    public SearchResult(int move, String explanation, int[] rankedMoves, int[] rankedScores,
+                        int[] principalVariation, int depthReached, long[] nodesPerDepth, boolean solved, int width,
+                        SearchStats stats) {
+        this.move = move;
+        this.explanation = explanation;
+        this.rankedMoves = rankedMoves;
+        this.rankedScores = rankedScores;
+        this.principalVariation = principalVariation;
+        this.depthReached = depthReached;
+        this.nodesPerDepth = nodesPerDepth;
+        this.solved = solved;
+        this.width = width;
+        this.stats = stats;
+    }
+
+    public int getMove() {
+        return move;
+    }
+
+    public String getExplanation() {
+        return explanation;
+    }
+
+    public int getDepthReached() {
+        return depthReached;
+    }
+
+    // True when the scores are proven solver scores rather than heuristic ones
+    public boolean isSolved() {
+        return solved;
+    }
+
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    // Nodes searched by each completed iteration, index 0 being depth 1
+    public long[] getNodesPerDepth() {
+        return nodesPerDepth.clone();
+    }
+
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    // Score of every column from the AI's point of view, null for columns that are full
+    public Integer[] getColumnScores() {
+        Integer[] scores = new Integer[width];
+        for (int i = 0; i < rankedMoves.length; i++) {
+            scores[rankedMoves[i]] = rankedScores[i];
+        }
+        return scores;
+    }
+
+    // Top 'count' moves as {move, score} maps, best first (the shape /api/ai/move has always returned)
+    public List<Map<String, Integer>> getRankedMoves(int count) {
+        List<Map<String, Integer>> out = new ArrayList<>();
+        int limit = Math.max(0, Math.min(count, rankedMoves.length));
+        for (int i = 0; i < limit; i++) {
+            Map<String, Integer> m = new HashMap<>();
+            m.put("move", rankedMoves[i]);
+            m.put("score", rankedScores[i]);
+            out.add(m);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,85 @@
+package com.game.fourfront.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Counters of one AIPlayer search, summed over every iteration and worker. The search keeps them in plain
+// long fields per worker and adds them up once per root move, so collecting them allocates nothing per node.
+public class SearchStats {
+    private final long nodes;
+    private final long cutoffs;
+    private final long tableProbes;
+    private final long tableHits;
+    private final int depthReached;
+    private final long elapsedNanos;
+    private final double branchingFactor;
+
+    public SearchStats(long nodes, long cutoffs, long tableProbes, long tableHits, int depthReached,
+                       long elapsedNanos, long[] nodesPerDepth) {
+        this.nodes = nodes;
+        this.cutoffs = cutoffs;
+        this.tableProbes = tableProbes;
+        this.tableHits = tableHits;
+        this.depthReached = depthReached;
+        this.elapsedNanos = elapsedNanos;
+        this.branchingFactor = branchingFactor(nodesPerDepth);
+    }
+
+    // Growth of the last iteration over the one before it, the usual measure for iterative deepening
+    private static double branchingFactor(long[] nodesPerDepth) {
+        int n = nodesPerDepth.length;
+        if (n == 0) return 0.0;
+        if (n == 1 || nodesPerDepth[n - 2] == 0) return nodesPerDepth[n - 1];
+        return (double) nodesPerDepth[n - 1] / nodesPerDepth[n - 2];
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    // Beta cutoffs below the root
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    public long getTableProbes() {
+        return tableProbes;
+    }
+
+    public long getTableHits() {
+        return tableHits;
+    }
+
+    public double getTableHitRate() {
+        return tableProbes == 0 ? 0.0 : (double) tableHits / tableProbes;
+    }
+
+    public int getDepthReached() {
+        return depthReached;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getBranchingFactor() {
+        return branchingFactor;
+    }
+
+    public double getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : nodes * 1e9 / elapsedNanos;
+    }
+
+    // The "stats" object of /api/ai/move
+    public Map<String, Object> toMap() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("nodes", nodes);
+        m.put("cutoffs", cutoffs);
+        m.put("tableHitRate", getTableHitRate());
+        m.put("depthReached", depthReached);
+        m.put("timeMs", elapsedNanos / 1_000_000.0);
+        m.put("nodesPerSecond", Math.round(getNodesPerSecond()));
+        m.put("branchingFactor", branchingFactor);
+        return m;
+    }
+}
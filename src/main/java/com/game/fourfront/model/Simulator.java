@@ -0,0 +1,123 @@
+package com.game.fourfront.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+// In-process batch evaluation for tournaments and balance tests: many positions or whole AI-vs-AI games
+// run in parallel on a pool, one task per position or game, with results handed to a consumer as each
+// task finishes (in completion order, so callers can stream them). Every task searches serially on the
+// shared transposition table; the parallelism is across tasks, not inside one search.
+//
+// Seeded matchups replay bit for bit: their games search on a table of the worker thread's own, cleared
+// before every game, so nothing another game left in the shared table can change a score (time budgets
+// still can, so replays want fixed depths).
+public class Simulator {
+    private final TranspositionTable table;
+    private final ThreadLocal<TranspositionTable> gameTables =
+            ThreadLocal.withInitial(() -> new TranspositionTable(TranspositionTable.DEFAULT_BYTES));
+    private final ExecutorService pool;
+    private final Solver solver;
+    private final int maxInFlight;
+
+    public Simulator(TranspositionTable table, ExecutorService pool, int parallelism, Solver solver) {
+        this.table = table;
+        this.pool = pool;
+        this.solver = solver;
+        this.maxInFlight = Math.max(1, 2 * parallelism);
+    }
+
+    // Searches one position for the side playing 'piece'
+    public SearchResult search(BitBoard bits, String piece, AIConfig config) {
+        return config.create(piece, table, solver).search(bits);
+    }
+
+    // Plays one game of the matchup to the end
+    public GameRecord play(Matchup matchup, int index) {
+        RuleSet rules = RuleSet.named(matchup.rules);
+        BitBoard bits = new BitBoard(rules.geometry(matchup.width, matchup.height, matchup.winLength), rules);
+        TranspositionTable gameTable = table;
+        if (matchup.seed != null) {
+            gameTable = gameTables.get();
+            gameTable.clear();
+        }
+        AIPlayer[] players = {
+            matchup.x.create("X", gameTable, solver),
+            matchup.o.create("O", gameTable, solver)
+        };
+        long seed = matchup.seed != null ? matchup.seed + index : new SplittableRandom().nextLong();
+        SplittableRandom rng = new SplittableRandom(AIPlayer.seedFor(seed, -1));
+        int[] cols = new int[bits.getWidth()];
+        int[] weights = new int[bits.getWidth()];
+        int[] moves = new int[bits.getGeometry().getCells()];
+        int plies = 0;
+        int player = BitBoard.X;
+        String winner = "draw";
+        while (!bits.isFull()) {
+            players[player].setSeed(AIPlayer.seedFor(seed, plies));
+            int move = players[player].search(bits).getMove();
+            if (move < 0) break;
+            int landed = rules.land(bits, move, rng, cols, weights);
+            bits.play(landed, player);
+            moves[plies++] = landed;
+            // An effect can complete a line for either side, the mover's counts first
+            if (bits.isWin(player) || bits.isWin(1 - player)) {
+                winner = BitBoard.pieceName(bits.isWin(player) ? player : 1 - player);
+                break;
+            }
+            player = 1 - player;
+        }
+        GameRecord record = new GameRecord();
+        record.index = index;
+        record.seed = seed;
+        record.winner = winner;
+        record.moves = Arrays.copyOf(moves, plies);
+        return record;
+    }
+
+    // Plays every game of every matchup, numbering games across matchups in order
+    public void playAll(List<Matchup> matchups, Consumer<? super GameRecord> sink) throws InterruptedException {
+        List<Callable<GameRecord>> tasks = new ArrayList<>();
+        for (Matchup matchup : matchups) {
+            for (int i = 0; i < matchup.games; i++) {
+                int index = tasks.size();
+                tasks.add(() -> play(matchup, index));
+            }
+        }
+        runAll(tasks, sink);
+    }
+
+    // Runs the tasks on the pool with a bounded number in flight, handing each result to sink on the
+    // calling thread as soon as it is done. A failed task stops the batch with its exception.
+    public <T> void runAll(List<Callable<T>> tasks, Consumer<? super T> sink) throws InterruptedException {
+        CompletionService<T> done = new ExecutorCompletionService<>(pool);
+        Iterator<Callable<T>> pending = tasks.iterator();
+        int inFlight = 0;
+        while (inFlight < maxInFlight && pending.hasNext()) {
+            done.submit(pending.next());
+            inFlight++;
+        }
+        while (inFlight > 0) {
+            T result;
+            try {
+                result = done.take().get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Batch task failed", e.getCause());
+            }
+            inFlight--;
+            if (pending.hasNext()) {
+                done.submit(pending.next());
+                inFlight++;
+            }
+            sink.accept(result);
+        }
+    }
+}
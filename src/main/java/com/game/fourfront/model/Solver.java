@@ -0,0 +1,185 @@
+package com.game.fourfront.model;
+
+// Perfect-play solver for standard 7x6 Connect Four, used by "The Connector". It runs a null-window
+// negamax on a raw packed bitboard (side-to-move stones + mask, same layout as BitBoard), narrowing
+// the score window until the exact value is proven. Early positions come from the opening book.
+//
+// Scores are from the side to move's point of view: 0 is a draw, a win scores the number of its own
+// stones it still had unplayed when it won ((43 - moves) / 2 for an immediate win), a loss the negative.
+public class Solver {
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+    static final Geometry GEOMETRY = Geometry.STANDARD;
+    private static final int WIDTH = GEOMETRY.getWidth();
+    private static final int CELLS = GEOMETRY.getCells();
+    private static final int TIME_CHECK_INTERVAL = 4095;
+    private static final int REACH_STONES = 12; // from here on most positions solve in well under a second
+    private static final long KEY_MIX = 0x9E3779B97F4A7C15L; // odd, so mixing keeps keys unique
+
+    private static final int[] CENTER_OUT = GEOMETRY.centerOut;
+    private static final long BOTTOM_ROW = GEOMETRY.bottomRow;
+    private static final long BOARD_MASK = GEOMETRY.boardMask;
+
+    private final TranspositionTable table;
+    private final OpeningBook book;
+
+    // The table must be dedicated to the solver: its scores are not comparable with AIPlayer's
+    public Solver(TranspositionTable table, OpeningBook book) {
+        this.table = table;
+        this.book = book;
+    }
+
+    // Only the standard board is solved, with any rules that put stones where they are aimed and leave
+    // them there (reversed gravity is the standard game upside down); everything else uses the heuristic search
+    public static boolean supports(BitBoard bits) {
+        return bits.getGeometry() == GEOMETRY && !bits.getRules().hasEffects() && !bits.getRules().hasChance();
+    }
+
+    // True when solving the root moves of this supported position is likely to finish in real time: every
+    // move leads into the opening book, or the board is full enough for the subtrees to be small. Between
+    // the two a solve takes seconds to minutes, which is better left to the heuristic search.
+    public boolean inReach(BitBoard bits) {
+        int stones = bits.getStoneCount();
+        return stones < book.getMaxMoves() || stones >= REACH_STONES;
+    }
+
+    // Exact score with 'player' to move, or UNKNOWN if the deadline (System.nanoTime) passed first
+    public int solve(BitBoard bits, int player, long deadlineNanos) {
+        return new Search(deadlineNanos).solve(bits.getPieces(player), bits.getMask(), bits.getStoneCount());
+    }
+
+    public int solve(BitBoard bits, int player) {
+        return solve(bits, player, Long.MAX_VALUE);
+    }
+
+    public OpeningBook getBook() {
+        return book;
+    }
+
+    // Book key of a position: side-to-move stones + mask is unique for every reachable position, and
+    // never carries out of a column, so it mirrors like the stones do. The smaller of the key and its
+    // mirror image's is used, folding a position and its mirror (which score the same) into one entry.
+    public static long key(long current, long mask) {
+        long key = current + mask;
+        return Math.min(key, GEOMETRY.mirror(key));
+    }
+
+    // Per-call state, so one Solver can serve concurrent requests
+    private class Search {
+        private final long deadline;
+        private final long[] moveBuffer = new long[(CELLS + 1) * WIDTH];
+        private final int[] scoreBuffer = new int[WIDTH];
+        private long nodes;
+        private boolean aborted;
+
+        Search(long deadline) {
+            this.deadline = deadline;
+        }
+
+        int solve(long current, long mask, int moves) {
+            if (canWinNext(current, mask)) return (CELLS + 1 - moves) / 2;
+            int min = -(CELLS - moves) / 2;
+            int max = (CELLS + 1 - moves) / 2;
+            // Null-window probes, biased towards 0 first since most positions are close to it
+            while (min < max) {
+                int med = min + (max - min) / 2;
+                if (med <= 0 && min / 2 < med) med = min / 2;
+                else if (med >= 0 && max / 2 > med) med = max / 2;
+                int r = negamax(current, mask, moves, med, med + 1);
+                if (aborted) return UNKNOWN;
+                if (r <= med) max = r;
+                else min = r;
+            }
+            return min;
+        }
+
+        // Assumes the side to move cannot win on this move (checked by the caller)
+        private int negamax(long current, long mask, int moves, int alpha, int beta) {
+            if ((++nodes & TIME_CHECK_INTERVAL) == 0 && System.nanoTime() > deadline) aborted = true;
+            if (aborted) return 0;
+
+            long next = nonLosingMoves(current, mask);
+            if (next == 0) return -(CELLS - moves) / 2; // every move lets the opponent win
+            if (moves >= CELLS - 2) return 0;           // draw: neither side can win in time
+
+            int min = -(CELLS - 2 - moves) / 2; // the opponent cannot win on its next move
+            if (alpha < min) {
+                alpha = min;
+                if (alpha >= beta) return alpha;
+            }
+            int max = (CELLS - 1 - moves) / 2; // we cannot win on this move
+            long key = key(current, mask);
+            if (moves <= book.getMaxMoves()) {
+                int booked = book.lookup(key);
+                if (booked != OpeningBook.NONE) return booked;
+            }
+            long entry = table.probe(key * KEY_MIX);
+            if (entry != 0) {
+                int value = TranspositionTable.score(entry);
+                if (TranspositionTable.flag(entry) == TranspositionTable.UPPER) {
+                    max = Math.min(max, value);
+                } else {
+                    min = Math.max(min, value);
+                    if (alpha < min) {
+                        alpha = min;
+                        if (alpha >= beta) return alpha;
+                    }
+                }
+            }
+            if (beta > max) {
+                beta = max;
+                if (alpha >= beta) return beta;
+            }
+
+            // Center-out, then by how many winning cells the move creates
+            int base = moves * WIDTH;
+            int count = 0;
+            for (int i = 0; i < WIDTH; i++) {
+                long move = next & GEOMETRY.columnMask(CENTER_OUT[i]);
+                if (move == 0) continue;
+                int score = Long.bitCount(GEOMETRY.winningCells(current | move) & ~(mask | move));
+                int j = count++;
+                while (j > 0 && scoreBuffer[j - 1] < score) {
+                    scoreBuffer[j] = scoreBuffer[j - 1];
+                    moveBuffer[base + j] = moveBuffer[base + j - 1];
+                    j--;
+                }
+                scoreBuffer[j] = score;
+                moveBuffer[base + j] = move;
+            }
+
+            for (int i = 0; i < count; i++) {
+                long move = moveBuffer[base + i];
+                // The opponent's stones become the side to move's
+                int score = -negamax(current ^ mask, mask | move, moves + 1, -beta, -alpha);
+                if (aborted) return 0;
+                if (score >= beta) {
+                    table.store(key * KEY_MIX, CELLS - moves, TranspositionTable.LOWER, score, -1);
+                    return score;
+                }
+                if (score > alpha) alpha = score;
+            }
+            table.store(key * KEY_MIX, CELLS - moves, TranspositionTable.UPPER, alpha, -1);
+            return alpha;
+        }
+    }
+
+    static boolean canWinNext(long current, long mask) {
+        return (GEOMETRY.winningCells(current) & ~mask & possible(mask)) != 0;
+    }
+
+    // Playable cells that don't hand the opponent an immediate win
+    static long nonLosingMoves(long current, long mask) {
+        long possible = possible(mask);
+        long opponentWins = GEOMETRY.winningCells(current ^ mask) & ~mask;
+        long forced = possible & opponentWins;
+        if (forced != 0) {
+            if ((forced & (forced - 1)) != 0) return 0; // two threats at once can't both be blocked
+            possible = forced;
+        }
+        return possible & ~(opponentWins >>> 1);
+    }
+
+    private static long possible(long mask) {
+        return (mask + BOTTOM_ROW) & BOARD_MASK;
+    }
+}
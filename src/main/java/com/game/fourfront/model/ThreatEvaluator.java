@@ -0,0 +1,129 @@
+package com.game.fourfront.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Incremental evaluation for BitBoard. Every possible winLength-cell line ("window") keeps a piece count
+// per player, updated as pieces are added and removed, along with the running window score, so scoring
+// a leaf costs a few bit operations instead of a scan of the board.
+//
+// Units match the old per-piece streak scan: on a four-in-a-row board open windows are worth 1 / 10 / 50
+// for one / two / three pieces (longer win lengths score 50 and 10 for one and two short, 1 otherwise),
+// each piece in the center column is worth 5, and a winning cell on the row parity that suits its owner
+// (odd rows for the player who moved first, even rows for the other) is worth PARITY_THREAT.
+//
+// The window tables depend only on the geometry, so each Geometry builds its Layout once.
+public class ThreatEvaluator {
+    private static final int CENTER_SCORE = 5;
+    private static final int PARITY_THREAT = 30;
+
+    // Per-geometry tables, built once by Geometry
+    static final class Layout {
+        final int[] windowScore;   // by piece count, 0..winLength
+        final int[][] cellWindows; // windows each cell (bit index) belongs to
+        final int windowCount;
+        final long centerMask;     // the center column, or the two middle ones on an even width
+        final long oddRows;        // rows 1, 3, 5, ... counted from the bottom
+
+        Layout(Geometry g) {
+            int win = g.getWinLength();
+            int width = g.getWidth();
+            int height = g.getHeight();
+            int h1 = g.h1;
+            windowScore = new int[win + 1];
+            for (int count = 1; count <= win; count++) {
+                windowScore[count] = count == win ? 100 : count == win - 1 ? 50 : count == win - 2 ? 10 : 1;
+            }
+
+            int[][] directions = {{1, 0}, {0, 1}, {1, 1}, {1, -1}}; // (dCol, dRow): horizontal, vertical, diagonals
+            int[] perCell = new int[width * h1];
+            List<int[]> windows = new ArrayList<>();
+            for (int[] d : directions) {
+                if (!g.getWinLines().includes(d[1], d[0])) continue;
+                for (int col = 0; col < width; col++) {
+                    for (int row = 0; row < height; row++) {
+                        int endCol = col + d[0] * (win - 1);
+                        int endRow = row + d[1] * (win - 1);
+                        if (endCol < 0 || endCol >= width || endRow < 0 || endRow >= height) continue;
+                        int[] cells = new int[win];
+                        for (int i = 0; i < win; i++) {
+                            cells[i] = (col + d[0] * i) * h1 + row + d[1] * i;
+                            perCell[cells[i]]++;
+                        }
+                        windows.add(cells);
+                    }
+                }
+            }
+            windowCount = windows.size();
+            cellWindows = new int[width * h1][];
+            for (int cell = 0; cell < perCell.length; cell++) cellWindows[cell] = new int[perCell[cell]];
+            int[] filled = new int[perCell.length];
+            for (int w = 0; w < windowCount; w++) {
+                for (int cell : windows.get(w)) cellWindows[cell][filled[cell]++] = w;
+            }
+
+            centerMask = g.columnMask((width - 1) / 2) | g.columnMask(width / 2);
+            long odd = 0;
+            for (int row = 0; row < height; row += 2) odd |= g.bottomRow << row;
+            oddRows = odd;
+        }
+    }
+
+    private final Geometry geometry;
+    private final Layout layout;
+    private final byte[][] counts;
+    private int windowScore; // from X's point of view
+
+    public ThreatEvaluator(Geometry geometry) {
+        this.geometry = geometry;
+        this.layout = geometry.evaluation;
+        this.counts = new byte[2][layout.windowCount];
+    }
+
+    public ThreatEvaluator(ThreatEvaluator other) {
+        this(other.geometry);
+        System.arraycopy(other.counts[BitBoard.X], 0, counts[BitBoard.X], 0, layout.windowCount);
+        System.arraycopy(other.counts[BitBoard.O], 0, counts[BitBoard.O], 0, layout.windowCount);
+        this.windowScore = other.windowScore;
+    }
+
+    public void add(int cell, int player) {
+        byte[] own = counts[player];
+        byte[] opp = counts[1 - player];
+        int[] score = layout.windowScore;
+        int sign = player == BitBoard.X ? 1 : -1;
+        for (int w : layout.cellWindows[cell]) {
+            // A window only scores while one side alone occupies it
+            if (opp[w] == 0) windowScore += sign * (score[own[w] + 1] - score[own[w]]);
+            else if (own[w] == 0) windowScore += sign * score[opp[w]];
+            own[w]++;
+        }
+    }
+
+    public void remove(int cell, int player) {
+        byte[] own = counts[player];
+        byte[] opp = counts[1 - player];
+        int[] score = layout.windowScore;
+        int sign = player == BitBoard.X ? 1 : -1;
+        for (int w : layout.cellWindows[cell]) {
+            own[w]--;
+            if (opp[w] == 0) windowScore -= sign * (score[own[w] + 1] - score[own[w]]);
+            else if (own[w] == 0) windowScore -= sign * score[opp[w]];
+        }
+    }
+
+    // Score of the position from the point of view of 'player', who is to move
+    public int evaluate(long xPieces, long oPieces, long mask, int player) {
+        int score = windowScore;
+        score += CENTER_SCORE * (Long.bitCount(xPieces & layout.centerMask) - Long.bitCount(oPieces & layout.centerMask));
+
+        // Odd/even threats: with an even stone count the side to move is the one that moved first
+        int first = (Long.bitCount(mask) & 1) == 0 ? player : 1 - player;
+        long empty = geometry.boardMask & ~mask;
+        long xGood = first == BitBoard.X ? layout.oddRows : ~layout.oddRows;
+        long oGood = ~xGood;
+        score += PARITY_THREAT * (Long.bitCount(geometry.winningCells(xPieces) & empty & xGood)
+                - Long.bitCount(geometry.winningCells(oPieces) & empty & oGood));
+        return player == BitBoard.X ? score : -score;
+    }
+}
@@ -0,0 +1,120 @@
+package com.game.fourfront.model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fixed-size transposition table keyed by BitBoard Zobrist hashes. Entries are two consecutive
+// longs in one array (checked key + packed data) so nothing is allocated per node. Packed data layout:
+//   bits 32..63 score | bits 24..31 generation | bits 16..23 depth | bits 8..9 bound flag | bits 0..7 best move + 1
+// A data word of 0 means the slot is empty, which is why flags start at 1.
+//
+// The table is shared by concurrent searches without locks: each slot stores key ^ data next to
+// data, so a slot torn by two racing writers fails the key check on probe and reads as a miss.
+// Probes and stores count nothing shared; the searches count their own probes.
+//
+// Entries age by the clock rather than per search: the generation moves on at most once a second, and
+// an entry only counts as left over once it is two generations old. Concurrent searches starting
+// therefore never age the entries of a search that is still running.
+public class TranspositionTable {
+    public static final int EXACT = 1;
+    public static final int LOWER = 2; // score is a lower bound (fail high)
+    public static final int UPPER = 3; // score is an upper bound (fail low)
+
+    public static final long DEFAULT_BYTES = 4L << 20;
+    private static final int BYTES_PER_ENTRY = 16;
+    private static final int MIN_ENTRIES = 1 << 10;
+    private static final long AGE_NANOS = 1_000_000_000L;
+
+    private final long[] slots;
+    private final int indexMask;
+    private volatile int generation = 1;
+    private final AtomicLong agedAt = new AtomicLong(System.nanoTime());
+
+    public TranspositionTable() {
+        this(DEFAULT_BYTES);
+    }
+
+    // Sizes the table to the largest power of two number of entries that fits in memoryBytes
+    public TranspositionTable(long memoryBytes) {
+        long entries = Long.highestOneBit(Math.max(MIN_ENTRIES, memoryBytes / BYTES_PER_ENTRY));
+        entries = Math.min(entries, 1 << 29);
+        this.slots = new long[(int) entries * 2];
+        this.indexMask = (int) entries - 1;
+    }
+
+    // Returns the packed entry for key, or 0 when the position is not stored
+    public long probe(long key) {
+        int index = ((int) key & indexMask) << 1;
+        long entry = slots[index + 1];
+        return entry != 0 && (slots[index] ^ entry) == key ? entry : 0;
+    }
+
+    // Depth-preferred replacement: a slot holding a different, recent position is only replaced by an
+    // equal or deeper search; the same position is always refreshed and entries left over from
+    // earlier searches are always fair game
+    public void store(long key, int depth, int flag, int score, int move) {
+        int index = ((int) key & indexMask) << 1;
+        long existing = slots[index + 1];
+        int gen = generation;
+        if (existing != 0 && (slots[index] ^ existing) != key
+                && age(gen, generation(existing)) < 2 && depth(existing) > depth) {
+            return;
+        }
+        long entry = pack(gen, depth, flag, score, move);
+        slots[index] = key ^ entry;
+        slots[index + 1] = entry;
+    }
+
+    // Called as each search starts: moves on to a new generation when the last one is a second old, so
+    // entries from finished searches age out first
+    public void newSearch() {
+        long now = System.nanoTime();
+        long last = agedAt.get();
+        if (now - last < AGE_NANOS || !agedAt.compareAndSet(last, now)) return;
+        int next = (generation + 1) & 0xFF;
+        generation = next == 0 ? 1 : next;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, 0L);
+    }
+
+    private static long pack(int generation, int depth, int flag, int score, int move) {
+        return ((long) score << 32)
+                | ((long) generation << 24)
+                | ((long) (depth & 0xFF) << 16)
+                | ((long) flag << 8)
+                | ((move + 1) & 0xFF);
+    }
+
+    public static int score(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    private static int generation(long entry) {
+        return (int) (entry >>> 24) & 0xFF;
+    }
+
+    // Generations from stored to current; generations run 1..255 and wrap around, skipping 0
+    private static int age(int current, int stored) {
+        int age = current - stored;
+        return age < 0 ? age + 255 : age;
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 16) & 0xFF;
+    }
+
+    public static int flag(long entry) {
+        return (int) (entry >>> 8) & 0x3;
+    }
+
+    // Best move stored with the entry, or -1 if none
+    public static int move(long entry) {
+        return (int) (entry & 0xFF) - 1;
+    }
+
+    public int getCapacity() {
+        return indexMask + 1;
+    }
+}
@@ -1,73 +1,168 @@
 package com.game.fourfront.service;
 
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import com.game.fourfront.model.BoardState;
+import com.game.fourfront.model.GameJournal;
+import com.game.fourfront.model.Geometry;
+import com.game.fourfront.model.JournaledGame;
 import com.game.fourfront.model.Move;
 import com.game.fourfront.model.MoveResult;
+import com.game.fourfront.model.PackedBoard;
+import com.game.fourfront.model.RuleSet;
 
+// Games between players, by game ID. Each game is an immutable PackedBoard behind an AtomicReference:
+// a move builds the next board from the current one and swaps it in with compare-and-set, retrying if
+// another move got there first, so concurrent moves on one game are never lost and no lock is held
+// anywhere. Different games share nothing but the map. Once a game is over its board takes no more
+// moves. A game goes to the journal by the move that ends it, which only the thread whose compare-and-set
+// succeeded can see, or unfinished when it is reset, deleted or dropped after being idle for longer than
+// the timeout. Watchers of a game are told whenever it changes and read the board themselves, so however
+// two racing moves get reported, what a watcher reads last is the game's latest board.
 @Service
 public class GameService {
 
-    private BoardState board = new BoardState(); // 6x7 grid initialized
+    private final Map<String, Game> games = new ConcurrentHashMap<>();
+    private final Map<String, Set<Runnable>> watchers = new ConcurrentHashMap<>();
+    private final GameJournal journal;
+    private final long idleTimeoutMs;
+
+    // A game's current board and when it was last played or read
+    private static final class Game {
+        final AtomicReference<PackedBoard> board;
+        volatile long lastUsedMs = System.currentTimeMillis();
+
+        Game(PackedBoard board) {
+            this.board = new AtomicReference<>(board);
+        }
+    }
+
+    public GameService(GameJournal journal,
+                       @Value("${fourfront.game.idle-timeout-minutes:30}") long idleTimeoutMinutes) {
+        this.journal = journal;
+        this.idleTimeoutMs = idleTimeoutMinutes * 60_000L;
+    }
+
+    // Starts a game on an empty standard 7x6 board and returns its ID
+    public String createGame() {
+        return createGame(Geometry.STANDARD.getWidth(), Geometry.STANDARD.getHeight(), Geometry.STANDARD.getWinLength());
+    }
 
-    public BoardState getBoard() {
-        return board;
+    public String createGame(int width, int height, int winLength) {
+        String id = UUID.randomUUID().toString();
+        games.put(id, new Game(PackedBoard.empty(Geometry.of(width, height, winLength))));
+        return id;
     }
 
-    public MoveResult placePiece(Move move, int playerId) {
+    public boolean hasGame(String gameId) {
+        return games.containsKey(gameId);
+    }
+
+    // Snapshot of the game's board, or null for an unknown game
+    public BoardState getBoard(String gameId) {
+        Game game = games.get(gameId);
+        if (game == null) return null;
+        game.lastUsedMs = System.currentTimeMillis();
+        return game.board.get().toBoardState();
+    }
+
+    public MoveResult placePiece(String gameId, Move move, int playerId) {
+        Game game = games.get(gameId);
+        if (game == null) throw new IllegalArgumentException("Unknown game " + gameId);
+        game.lastUsedMs = System.currentTimeMillis();
         MoveResult result = new MoveResult();
-        int col = move.column;
-
-        // Find lowest empty row in column
-        int row = -1;
-        for (int r = board.grid.length - 1; r >= 0; r--) {
-            if (board.grid[r][col] == 0) {
-                row = r;
-                break;
+        while (true) {
+            PackedBoard current = game.board.get();
+            PackedBoard next = current.play(move.column, playerId);
+            if (next == null) {
+                result.valid = false; // game over, off the board or column full
+                return result;
+            }
+            if (game.board.compareAndSet(current, next)) {
+                result.win = next.getWinner() == playerId;
+                if (next.isOver()) journal(next);
+                notifyWatchers(gameId);
+                return result;
             }
         }
+    }
 
-        if (row == -1) {
-            result.valid = false; // column full
-            return result;
-        }
+    // Clears the game's board, keeping its size; false for an unknown game
+    public boolean resetBoard(String gameId) {
+        Game game = games.get(gameId);
+        if (game == null) return false;
+        game.lastUsedMs = System.currentTimeMillis();
+        PackedBoard empty = PackedBoard.empty(game.board.get().getGeometry());
+        PackedBoard old = game.board.getAndSet(empty);
+        if (!old.isOver() && old.getStoneCount() > 0) journal(old);
+        notifyWatchers(gameId);
+        return true;
+    }
 
-        board.grid[row][col] = playerId;
+    public boolean removeGame(String gameId) {
+        Game game = games.remove(gameId);
+        if (game == null) return false;
+        closed(gameId, game);
+        return true;
+    }
 
-        if (checkWin(row, col, playerId)) {
-            result.win = true;
-        }
+    @Scheduled(fixedDelayString = "${fourfront.game.sweep-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMs;
+        games.entrySet().removeIf(entry -> {
+            if (entry.getValue().lastUsedMs >= cutoff) return false;
+            closed(entry.getKey(), entry.getValue());
+            return true;
+        });
+    }
 
-        return result;
+    // A game just taken out of the registry: journaled if unfinished, and its watchers let go
+    private void closed(String gameId, Game game) {
+        PackedBoard last = game.board.get();
+        if (!last.isOver() && last.getStoneCount() > 0) journal(last);
+        Set<Runnable> gone = watchers.remove(gameId);
+        if (gone != null) gone.forEach(Runnable::run); // they find the game gone
     }
 
-    private boolean checkWin(int row, int col, int playerId) {
-        // Check horizontal, vertical, diagonal
-        return checkDirection(row, col, 0, 1, playerId)   // horizontal
-            || checkDirection(row, col, 1, 0, playerId)   // vertical
-            || checkDirection(row, col, 1, 1, playerId)   // diagonal \
-            || checkDirection(row, col, 1, -1, playerId); // diagonal /
+    // Runs 'watcher' after every move or reset of the game and once when it is deleted, on the thread that
+    // changed it, so it must not block. False for an unknown game.
+    public boolean watch(String gameId, Runnable watcher) {
+        if (!games.containsKey(gameId)) return false;
+        watchers.compute(gameId, (id, set) -> {
+            if (set == null) set = ConcurrentHashMap.newKeySet();
+            set.add(watcher);
+            return set;
+        });
+        return true;
     }
 
-    private boolean checkDirection(int row, int col, int dr, int dc, int playerId) {
-        int count = 1;
-        count += countDirection(row, col, dr, dc, playerId);
-        count += countDirection(row, col, -dr, -dc, playerId);
-        return count >= 4;
+    public void unwatch(String gameId, Runnable watcher) {
+        watchers.computeIfPresent(gameId, (id, set) -> {
+            set.remove(watcher);
+            return set.isEmpty() ? null : set;
+        });
     }
 
-    private int countDirection(int row, int col, int dr, int dc, int playerId) {
-        int r = row + dr, c = col + dc, count = 0;
-        while (r >= 0 && r < 6 && c >= 0 && c < 7 && board.grid[r][c] == playerId) {
-            count++;
-            r += dr;
-            c += dc;
-        }
-        return count;
+    private void notifyWatchers(String gameId) {
+        Set<Runnable> set = watchers.get(gameId);
+        if (set != null) set.forEach(Runnable::run);
+    }
+
+    // Games here are between two players on standard rules; player ids 1 and 2 are X and O
+    private void journal(PackedBoard board) {
+        String winner = board.getWinner() == 1 ? "X" : board.getWinner() == 2 ? "O" : board.isFull() ? "draw" : null;
+        journal.append(JournaledGame.of(board.getGeometry(), RuleSet.STANDARD, null, winner, board.getMoves()));
     }
 
-    public void resetBoard() {
-        board = new BoardState();
+    public int getGameCount() {
+        return games.size();
     }
-}
\ No newline at end of file
+}
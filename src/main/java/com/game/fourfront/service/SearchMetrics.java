@@ -0,0 +1,59 @@
+package com.game.fourfront.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.game.fourfront.model.GameJournal;
+import com.game.fourfront.model.SearchStats;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Publishes the statistics of every AI search requested over HTTP as Micrometer meters (served by
+// Actuator under /actuator/metrics), tagged with the search mode and rule set. Background searches such
+// as pondering are not recorded. Turned off with fourfront.ai.metrics.enabled=false. The game journal's
+// totals are published alongside, whatever that setting.
+@Service
+public class SearchMetrics {
+    private final MeterRegistry registry;
+    private final boolean enabled;
+
+    public SearchMetrics(MeterRegistry registry, GameJournal journal,
+                         @Value("${fourfront.ai.metrics.enabled:true}") boolean enabled) {
+        this.registry = registry;
+        this.enabled = enabled;
+        Gauge.builder("fourfront.journal.written", journal, GameJournal::getWritten)
+                .description("Games written to the journal")
+                .register(registry);
+        Gauge.builder("fourfront.journal.dropped", journal, GameJournal::getDropped)
+                .description("Games lost to a full journal queue or a failed write")
+                .register(registry);
+    }
+
+    public void record(SearchStats stats, String mode, String rules) {
+        if (!enabled || stats == null) return;
+        Timer.builder("fourfront.ai.search.time")
+                .description("Wall-clock time of one AI search")
+                .tags("mode", mode, "rules", rules)
+                .register(registry)
+                .record(stats.getElapsedNanos(), TimeUnit.NANOSECONDS);
+        summary("fourfront.ai.search.nodes", "Nodes visited per search", mode, rules).record(stats.getNodes());
+        summary("fourfront.ai.search.cutoffs", "Beta cutoffs per search", mode, rules).record(stats.getCutoffs());
+        summary("fourfront.ai.search.depth", "Deepest completed iteration", mode, rules).record(stats.getDepthReached());
+        summary("fourfront.ai.search.table.hit.rate", "Transposition table hits per probe", mode, rules)
+                .record(stats.getTableHitRate());
+        summary("fourfront.ai.search.branching.factor", "Effective branching factor of the last iteration", mode, rules)
+                .record(stats.getBranchingFactor());
+    }
+
+    private DistributionSummary summary(String name, String description, String mode, String rules) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tags("mode", mode, "rules", rules)
+                .register(registry);
+    }
+}
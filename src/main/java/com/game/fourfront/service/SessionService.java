@@ -0,0 +1,105 @@
+package com.game.fourfront.service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.game.fourfront.model.AIPlayer;
+import com.game.fourfront.model.Board;
+import com.game.fourfront.model.GameJournal;
+import com.game.fourfront.model.GameSession;
+import com.game.fourfront.model.PonderPool;
+import com.game.fourfront.model.Solver;
+import com.game.fourfront.model.TranspositionTable;
+
+// Games in progress against the AI, by game ID. Sessions idle for longer than the timeout are dropped
+// by a periodic sweep, and when the registry is full the least recently used one makes room. Every game
+// goes to the journal when it ends, or unfinished when its session is dropped.
+@Service
+public class SessionService {
+    private final Map<String, GameSession> sessions = new ConcurrentHashMap<>();
+    private final TranspositionTable table;
+    private final ForkJoinPool searchPool;
+    private final Solver solver;
+    private final PonderPool ponderPool;
+    private final GameJournal journal;
+    private final int ponderReplies;
+    private final long ponderMaxMs;
+    private final long idleTimeoutMs;
+    private final int maxSessions;
+
+    public SessionService(TranspositionTable table, ForkJoinPool searchPool, Solver solver, PonderPool ponderPool,
+                          GameJournal journal,
+                          @Value("${fourfront.ai.ponder-replies:3}") int ponderReplies,
+                          @Value("${fourfront.ai.ponder-max-ms:10000}") long ponderMaxMs,
+                          @Value("${fourfront.session.idle-timeout-minutes:30}") long idleTimeoutMinutes,
+                          @Value("${fourfront.session.max-sessions:10000}") int maxSessions) {
+        this.table = table;
+        this.searchPool = searchPool;
+        this.solver = solver;
+        this.ponderPool = ponderPool;
+        this.journal = journal;
+        this.ponderReplies = ponderReplies;
+        this.ponderMaxMs = ponderMaxMs;
+        this.idleTimeoutMs = idleTimeoutMinutes * 60_000L;
+        this.maxSessions = maxSessions;
+    }
+
+    // Starts a game on an empty board; the AI searches on the shared table and pool like /api/ai/move,
+    // and with 'ponder' also searches the human's likely replies in the background. A null seed picks one.
+    public GameSession create(Board board, String aiPiece, int aiDepth, double mistakeRate, String aiName,
+                              long timeBudgetMs, boolean solverMode, boolean ponder, Long seed) {
+        if (sessions.size() >= maxSessions) evictLeastRecentlyUsed();
+        AIPlayer ai = new AIPlayer(aiPiece, aiDepth, mistakeRate, aiName, table);
+        ai.setTimeBudgetMs(timeBudgetMs);
+        ai.setSearchPool(searchPool);
+        if (solverMode) ai.setSolver(solver);
+        String id = UUID.randomUUID().toString();
+        GameSession session = seed == null
+                ? new GameSession(id, board, ai, aiPiece)
+                : new GameSession(id, board, ai, aiPiece, seed);
+        if (ponder) session.setPondering(ponderPool, ponderReplies, ponderMaxMs);
+        session.setJournal(journal);
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    // The session, or null when it never existed or was evicted
+    public GameSession get(String id) {
+        return sessions.get(id);
+    }
+
+    public boolean remove(String id) {
+        GameSession session = sessions.remove(id);
+        if (session == null) return false;
+        session.close();
+        return true;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    @Scheduled(fixedDelayString = "${fourfront.session.sweep-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMs;
+        sessions.values().removeIf(session -> {
+            if (session.getLastUsedMs() >= cutoff) return false;
+            session.close();
+            return true;
+        });
+    }
+
+    private void evictLeastRecentlyUsed() {
+        GameSession oldest = null;
+        for (GameSession session : sessions.values()) {
+            if (oldest == null || session.getLastUsedMs() < oldest.getLastUsedMs()) oldest = session;
+        }
+        if (oldest != null && sessions.remove(oldest.getId(), oldest)) oldest.close();
+    }
+}
@@ -0,0 +1,103 @@
+package com.game.fourfront.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// The pruned chance-node search (Star1/Star2 with the transposition table) must pick the same move with
+// the same expected score as a brute-force expectimax over every outcome, on random corruption positions
+class ChanceSearchTest {
+    // AIPlayer's scoring: wins, the static evaluation's limit and the reach below which outcomes are
+    // scored statically
+    private static final int WIN_SCORE = 1000;
+    private static final int EVAL_LIMIT = WIN_SCORE - 1;
+    private static final double PROB_CUTOFF = 0.01;
+    private static final int POSITIONS = 60;
+
+    @Test
+    void chanceSearchMatchesExpectimax() {
+        Random random = new Random(12);
+        RuleSet rules = RuleSet.CORRUPTION;
+        for (int depth = 2; depth <= 3; depth++) {
+            for (int[] size : new int[][] {{7, 6, 4}, {5, 5, 4}}) {
+                Geometry geometry = rules.geometry(size[0], size[1], size[2]);
+                for (int n = 0; n < POSITIONS; n++) {
+                    BitBoard bits = randomPosition(geometry, rules, random);
+                    int player = bits.getStoneCount() % 2 == 0 ? BitBoard.X : BitBoard.O;
+                    int[] expected = expectimaxRoot(new BitBoard(bits), player, depth);
+                    String where = "depth " + depth + ", " + size[0] + "x" + size[1] + " " + bits.toBase64();
+
+                    AIPlayer ai = new AIPlayer(BitBoard.pieceName(player), depth, 0, "test", new TranspositionTable(1L << 20));
+                    SearchResult result = ai.search(bits);
+                    assertEquals(expected[0], result.getMove(), "move, " + where);
+                    assertEquals(expected[1], (int) result.getColumnScores()[result.getMove()], "score, " + where);
+                }
+            }
+        }
+    }
+
+    // A position reached by random play (stones land where aimed) that is not over yet
+    private static BitBoard randomPosition(Geometry geometry, RuleSet rules, Random random) {
+        while (true) {
+            BitBoard bits = new BitBoard(geometry, rules);
+            int plies = random.nextInt(geometry.getCells() / 2);
+            boolean over = false;
+            for (int ply = 0; ply < plies && !over; ply++) {
+                int col;
+                do col = random.nextInt(geometry.getWidth()); while (!bits.canPlay(col));
+                bits.play(col, ply % 2);
+                over = bits.isWin(ply % 2) || bits.isFull();
+            }
+            if (!over) return bits;
+        }
+    }
+
+    // {best move, its expected score}: the lowest column among the best, as AIPlayer breaks ties
+    private static int[] expectimaxRoot(BitBoard bits, int player, int depth) {
+        int[] best = {-1, Integer.MIN_VALUE};
+        for (int col = 0; col < bits.getWidth(); col++) {
+            if (!bits.canPlay(col)) continue;
+            int score = expectation(bits, col, player, depth, 1.0);
+            if (score > best[1]) {
+                best[0] = col;
+                best[1] = score;
+            }
+        }
+        return best;
+    }
+
+    // Expected score for 'player' aiming at col, rounded down like AIPlayer's chance nodes
+    private static int expectation(BitBoard bits, int col, int player, int depth, double reach) {
+        int[] cols = new int[bits.getWidth()];
+        int[] weights = new int[bits.getWidth()];
+        int count = bits.getRules().outcomes(bits, col, cols, weights);
+        long total = 0;
+        for (int i = 0; i < count; i++) total += weights[i];
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            double outcomeReach = reach * weights[i] / total;
+            bits.play(cols[i], player);
+            int score = bits.isWin(player) ? WIN_SCORE + depth - 1
+                    : outcomeReach < PROB_CUTOFF ? -bounded(bits, 1 - player)
+                    : -expectimax(bits, depth - 1, 1 - player, outcomeReach);
+            bits.undo();
+            sum += weights[i] * (long) score;
+        }
+        return (int) Math.floorDiv(sum, total);
+    }
+
+    private static int expectimax(BitBoard bits, int depth, int player, double reach) {
+        if (depth == 0 || bits.isFull()) return bounded(bits, player);
+        int best = Integer.MIN_VALUE;
+        for (int col = 0; col < bits.getWidth(); col++) {
+            if (bits.canPlay(col)) best = Math.max(best, expectation(bits, col, player, depth, reach));
+        }
+        return best;
+    }
+
+    private static int bounded(BitBoard bits, int player) {
+        return Math.max(-EVAL_LIMIT, Math.min(EVAL_LIMIT, bits.evaluate(player)));
+    }
+}
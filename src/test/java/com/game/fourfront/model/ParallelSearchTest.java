@@ -0,0 +1,108 @@
+package com.game.fourfront.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+// The serial and the parallel root search must pick the same move with the same score as a plain
+// fixed-depth negamax without pruning, transposition table or move ordering, on random positions of
+// the rule sets without effects (where a position's stone count fixes its ply, so table entries of
+// one iteration are never deeper than the node asking)
+class ParallelSearchTest {
+    private static final int WIN_SCORE = 1000; // AIPlayer's
+    private static final int DEPTH = 5;
+    private static final int POSITIONS = 100;
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void serialAndParallelSearchMatchPlainNegamax() {
+        Random random = new Random(5);
+        for (RuleSet rules : List.of(RuleSet.STANDARD, RuleSet.DIAGONAL, RuleSet.REVERSED_GRAVITY)) {
+            for (BitBoard bits : randomPositions(rules, random)) {
+                int player = bits.getStoneCount() % 2 == 0 ? BitBoard.X : BitBoard.O;
+                int[] expected = plainRoot(new BitBoard(bits), player);
+                String where = rules.getName() + " after " + bits.getStoneCount() + " stones " + bits.toBase64();
+
+                SearchResult serial = searcher(player, null).search(bits);
+                assertEquals(expected[0], serial.getMove(), "serial move, " + where);
+                assertEquals(expected[1], (int) serial.getColumnScores()[serial.getMove()], "serial score, " + where);
+
+                SearchResult parallel = searcher(player, pool).search(bits);
+                assertEquals(expected[0], parallel.getMove(), "parallel move, " + where);
+                assertEquals(expected[1], (int) parallel.getColumnScores()[parallel.getMove()], "parallel score, " + where);
+            }
+        }
+    }
+
+    // A fresh table for every search, so no entry from a deeper search of another test case is reused
+    private static AIPlayer searcher(int player, ForkJoinPool searchPool) {
+        AIPlayer ai = new AIPlayer(BitBoard.pieceName(player), DEPTH, 0, "test", new TranspositionTable(1L << 20));
+        ai.setSearchPool(searchPool);
+        return ai;
+    }
+
+    // Positions reached by random play that are not over yet, X to move first
+    private static List<BitBoard> randomPositions(RuleSet rules, Random random) {
+        List<BitBoard> positions = new ArrayList<>();
+        while (positions.size() < POSITIONS) {
+            BitBoard bits = new BitBoard(rules.geometry(7, 6, 4), rules);
+            int plies = random.nextInt(24);
+            boolean over = false;
+            for (int ply = 0; ply < plies && !over; ply++) {
+                int col;
+                do col = random.nextInt(7); while (!bits.canPlay(col));
+                bits.play(col, ply % 2);
+                over = bits.isWin(ply % 2) || bits.isFull();
+            }
+            if (!over) positions.add(bits);
+        }
+        return positions;
+    }
+
+    // {best move, its score}: the lowest column among the best, as AIPlayer breaks ties
+    private static int[] plainRoot(BitBoard bits, int player) {
+        int[] best = {-1, Integer.MIN_VALUE};
+        for (int col = 0; col < bits.getWidth(); col++) {
+            if (!bits.canPlay(col)) continue;
+            bits.play(col, player);
+            int score = bits.isWin(player) ? WIN_SCORE + DEPTH - 1 : -plainNegamax(bits, DEPTH - 1, 1 - player);
+            bits.undo();
+            if (score > best[1]) {
+                best[0] = col;
+                best[1] = score;
+            }
+        }
+        return best;
+    }
+
+    private static int plainNegamax(BitBoard bits, int depth, int player) {
+        if (depth == 0 || bits.isFull()) return bits.evaluate(player);
+        int best = Integer.MIN_VALUE;
+        for (int col = 0; col < bits.getWidth(); col++) {
+            if (!bits.canPlay(col)) continue;
+            bits.play(col, player);
+            int score = bits.isWin(player) ? WIN_SCORE + depth - 1 : -plainNegamax(bits, depth - 1, 1 - player);
+            bits.undo();
+            best = Math.max(best, score);
+        }
+        return best;
+    }
+}
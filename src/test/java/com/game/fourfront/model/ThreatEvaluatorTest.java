@@ -0,0 +1,69 @@
+package com.game.fourfront.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// The window counts and hashes BitBoard keeps up to date on every move (and every rule set effect) must
+// match a board rebuilt from scratch out of the same stones, and undo must restore them exactly
+class ThreatEvaluatorTest {
+    private static final List<RuleSet> RULE_SETS = List.of(RuleSet.STANDARD, RuleSet.DIAGONAL,
+            RuleSet.REVERSED_GRAVITY, RuleSet.DESTROY, RuleSet.SWAP, RuleSet.CORRUPTION);
+    private static final int[][] SIZES = {{7, 6, 4}, {5, 4, 3}, {8, 7, 5}};
+    private static final int GAMES = 40;
+
+    @Test
+    void incrementalScoresMatchRebuild() {
+        Random random = new Random(7);
+        int positions = 0;
+        for (RuleSet rules : RULE_SETS) {
+            for (int[] size : SIZES) {
+                Geometry geometry = rules.geometry(size[0], size[1], size[2]);
+                for (int game = 0; game < GAMES; game++) {
+                    BitBoard bits = new BitBoard(geometry, rules);
+                    int[] evaluations = new int[geometry.getCells() + 1];
+                    long[] hashes = new long[geometry.getCells() + 1];
+                    int plies = 0;
+                    for (int player = BitBoard.X; !bits.isFull(); player = 1 - player) {
+                        evaluations[plies] = bits.evaluate(BitBoard.X);
+                        hashes[plies] = bits.hash(BitBoard.X);
+                        int col;
+                        do col = random.nextInt(geometry.getWidth()); while (!bits.canPlay(col));
+                        bits.play(col, player);
+                        plies++;
+                        assertMatchesRebuild(bits, rules.getName() + " " + bits.toBase64());
+                        positions++;
+                        if (bits.isWin(player)) break;
+                    }
+                    // Back to the empty board, checking every position on the way
+                    while (plies > 0) {
+                        bits.undo();
+                        plies--;
+                        assertEquals(evaluations[plies], bits.evaluate(BitBoard.X), rules.getName() + " evaluation after undo");
+                        assertEquals(hashes[plies], bits.hash(BitBoard.X), rules.getName() + " hash after undo");
+                    }
+                }
+            }
+        }
+        assertTrue(positions > 2000, "positions checked: " + positions);
+    }
+
+    private static void assertMatchesRebuild(BitBoard bits, String where) {
+        Geometry geometry = bits.getGeometry();
+        BitBoard rebuilt = new BitBoard(geometry, bits.getRules());
+        for (int row = 0; row < geometry.getHeight(); row++) {
+            for (int col = 0; col < geometry.getWidth(); col++) {
+                int owner = bits.cell(row, col);
+                if (owner >= 0) rebuilt.set(row, col, owner);
+            }
+        }
+        for (int player = BitBoard.X; player <= BitBoard.O; player++) {
+            assertEquals(rebuilt.evaluate(player), bits.evaluate(player), "evaluation, " + where);
+            assertEquals(rebuilt.hash(player), bits.hash(player), "hash, " + where);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.game.fourfront.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.game.fourfront.model.BoardState;
+import com.game.fourfront.model.GameJournal;
+import com.game.fourfront.model.Move;
+import com.game.fourfront.model.MoveResult;
+
+class GameServiceTest {
+    private static final int THREADS = 16;
+    private static final int MOVES_PER_THREAD = 2000;
+    private static final int GAMES = 4;
+
+    // Many threads play random moves on a few shared games at once: every move reported valid must be
+    // on the final board, and no other
+    @Test
+    void concurrentMovesAreNeverLost() throws InterruptedException {
+        GameService service = new GameService(GameJournal.disabled(), 30);
+        String[] ids = new String[GAMES];
+        AtomicInteger[] accepted = new AtomicInteger[GAMES];
+        for (int g = 0; g < GAMES; g++) {
+            // A win length random play hardly ever reaches keeps the games going until the boards fill up
+            ids[g] = service.createGame(8, 6, 8);
+            accepted[g] = new AtomicInteger();
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < MOVES_PER_THREAD; i++) {
+                    int g = random.nextInt(GAMES);
+                    Move move = new Move();
+                    move.column = random.nextInt(-1, 9); // some off the board
+                    move.playerId = 1 + random.nextInt(2);
+                    if (service.placePiece(ids[g], move, move.playerId).valid) accepted[g].incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+
+        for (int g = 0; g < GAMES; g++) {
+            assertEquals(accepted[g].get(), stones(service.getBoard(ids[g])), "stones on game " + g);
+        }
+    }
+
+    @Test
+    void finishedGameTakesNoMoreMoves() {
+        GameService service = new GameService(GameJournal.disabled(), 30);
+        String id = service.createGame();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(play(service, id, 0, 1).valid);
+            assertTrue(play(service, id, 1, 2).valid);
+        }
+        MoveResult win = play(service, id, 0, 1);
+        assertTrue(win.valid && win.win, "four in column 0 wins");
+
+        assertFalse(play(service, id, 3, 2).valid, "a move after the win");
+        assertEquals(7, stones(service.getBoard(id)));
+    }
+
+    @Test
+    void idleGamesAreDropped() throws InterruptedException {
+        GameService service = new GameService(GameJournal.disabled(), 0);
+        String id = service.createGame();
+        AtomicInteger told = new AtomicInteger();
+        assertTrue(service.watch(id, told::incrementAndGet));
+        Thread.sleep(5);
+        service.evictIdle();
+        assertNull(service.getBoard(id));
+        assertEquals(0, service.getGameCount());
+        assertEquals(1, told.get(), "watchers are told the game is gone");
+    }
+
+    private static MoveResult play(GameService service, String id, int column, int playerId) {
+        Move move = new Move();
+        move.column = column;
+        move.playerId = playerId;
+        return service.placePiece(id, move, playerId);
+    }
+
+    private static int stones(BoardState board) {
+        int stones = 0;
+        for (int[] row : board.grid) {
+            for (int cell : row) {
+                if (cell != 0) stones++;
+            }
+        }
+        return stones;
+    }
+}